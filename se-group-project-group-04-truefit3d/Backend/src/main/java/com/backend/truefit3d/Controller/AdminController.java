@@ -0,0 +1,21 @@
+package com.backend.truefit3d.Controller;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.backend.truefit3d.Service.ImageCache;
+
+@RestController
+public class AdminController {
+
+    @Autowired
+    private ImageCache imageCache;
+
+    // Hit ratio, bytes served from memory and budget use of the photo cache
+    @GetMapping("/admin/image-cache")
+    public ResponseEntity<?> getImageCacheStats() {
+        return ResponseEntity.ok().body(imageCache.stats());
+    }
+}
@@ -1,14 +1,13 @@
 package com.backend.truefit3d.Controller;
 
+import java.awt.image.BufferedImage;
 import java.io.IOException;
-import java.nio.file.Files;
-import java.nio.file.Path;
-import java.nio.file.Paths;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
 import java.util.Map;
-import java.util.UUID;
 
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.CacheControl;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -16,9 +15,19 @@ import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import com.backend.truefit3d.Model.ClothFilter;
+import com.backend.truefit3d.Model.ClothSummary;
+import com.backend.truefit3d.Model.ImageHash;
+import com.backend.truefit3d.Repo.ClothCatalogRepo;
+import com.backend.truefit3d.Service.BlobStore;
 import com.backend.truefit3d.Service.ClothServices;
+import com.backend.truefit3d.Service.ImageDecoder;
+import com.backend.truefit3d.Service.ImageDescriptor;
+import com.backend.truefit3d.Service.PerceptualHash;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
@@ -27,17 +36,23 @@ import com.backend.truefit3d.Model.User;
 @RestController
 public class ClothController {
 
-    @Value("${upload.directory}") // Defined in application.properties
-    private String uploadDirectory;
-
     @Autowired
     private ClothServices clothServices;
 
+    @Autowired
+    private BlobStore blobStore;
+
     @PostMapping(value = "/upload", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
     public ResponseEntity<?> AddCloth(
         @RequestParam("file") MultipartFile file,
         @RequestParam("data") String dataJson
     ) {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null || !(authentication.getPrincipal() instanceof User)) {
+            return ResponseEntity.badRequest().body("User not authenticated");
+        }
+        String ownerUsername = ((User) authentication.getPrincipal()).getUsername();
+
         try {
             if (file.isEmpty()) {
                 return ResponseEntity.badRequest().body("File is missing");
@@ -58,33 +73,39 @@ public class ClothController {
             }
 
             String fileExtension = originalFilename.substring(originalFilename.lastIndexOf('.'));
-            String uniqueFilename = UUID.randomUUID() + fileExtension;
-            
-            Path uploadPath = Paths.get(uploadDirectory);
-            if (!Files.exists(uploadPath)) {
-                Files.createDirectories(uploadPath);
+
+            // A near-duplicate of a photo already in the wardrobe is rejected
+            Long imageHash;
+            try (InputStream in = file.getInputStream()) {
+                imageHash = PerceptualHash.of(in);
+            }
+            ImageHash duplicate = imageHash == null ? null : clothServices.findDuplicateImage(imageHash, ownerUsername);
+            if (duplicate != null) {
+                return ResponseEntity.badRequest().body("Duplicate of item " + duplicate.getClothId());
             }
-            
-            Path filePath = uploadPath.resolve(uniqueFilename);
-            Files.copy(file.getInputStream(), filePath);
-            
-            String imgUrl = "http://localhost:8000/uploads/" + uniqueFilename;
+            // Named by content hash, so identical bytes are only written once
+            String storedFilename = blobStore.store(file.getInputStream(), fileExtension);
+
+            // Only the storage key is kept; reads turn it into a signed URL
+            String imgUrl = storedFilename;
 
             // Use equals() for string comparison
             String type = data.get("typ").toLowerCase();
+            ClothSummary item;
             switch (type) {
                 case "tshirt":
-                    clothServices.addTshirt(data, imgUrl);
+                    item = clothServices.addTshirt(data, imgUrl, ownerUsername);
                     break;
                 case "jeans":
-                    clothServices.addJeans(data, imgUrl);
+                    item = clothServices.addJeans(data, imgUrl, ownerUsername);
                     break;
                 case "skirt":
-                    clothServices.addSkirt(data, imgUrl);
+                    item = clothServices.addSkirt(data, imgUrl, ownerUsername);
                     break;
                 default:
                     return ResponseEntity.badRequest().body("Invalid clothing type");
             }
+            clothServices.indexImage(item, ownerUsername, storedFilename, imageHash);
 
             return ResponseEntity.ok().body("Clothing item uploaded successfully");
         } catch (IOException e) {
@@ -94,9 +115,147 @@ public class ClothController {
         }
     }
 
+    @PostMapping(value = "/search-by-image", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    public ResponseEntity<?> searchByImage(
+        @RequestParam("file") MultipartFile file,
+        @RequestParam(required = false) String ownerUsername,
+        @RequestParam(defaultValue = "10") int limit
+    ) {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null || !(authentication.getPrincipal() instanceof User)) {
+            return ResponseEntity.badRequest().body("User not authenticated");
+        }
+        String viewerUsername = ((User) authentication.getPrincipal()).getUsername();
+
+        try {
+            if (file.isEmpty()) {
+                return ResponseEntity.badRequest().body("File is missing");
+            }
+            BufferedImage image = ImageDecoder.read(file.getInputStream(), ImageDescriptor.DECODE_SIDE);
+            if (image == null) {
+                return ResponseEntity.badRequest().body("Unsupported image format");
+            }
+            return ResponseEntity.ok().body(clothServices.searchByImage(image, viewerUsername, ownerUsername, limit));
+        } catch (IOException e) {
+            return ResponseEntity.internalServerError().body("Failed to process file: " + e.getMessage());
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
     @GetMapping("/outfits")
-    public ResponseEntity<?> getClothes() {
-        return ResponseEntity.ok().body(clothServices.getAllClothesByType());
+    public ResponseEntity<?> getClothes(WebRequest request) {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication != null && authentication.getPrincipal() instanceof User) {
+            User user = (User) authentication.getPrincipal();
+            // Answer revalidations from the version counter alone, before any query runs
+            String etag = clothServices.getCatalogETag("outfits", user.getUsername());
+            if (request.checkNotModified(etag)) {
+                return null;
+            }
+            return ResponseEntity.ok()
+                .cacheControl(CacheControl.noCache().cachePrivate())
+                .eTag(etag)
+                .body(clothServices.getAllClothesByType(user.getUsername()));
+        }
+        return ResponseEntity.badRequest().body("User not authenticated");
+    }
+
+    @GetMapping("/outfits/page")
+    public ResponseEntity<?> getClothesPage(
+        @RequestParam(required = false) String type,
+        @RequestParam(defaultValue = "0") long after,
+        @RequestParam(defaultValue = "50") int size
+    ) {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null || !(authentication.getPrincipal() instanceof User)) {
+            return ResponseEntity.badRequest().body("User not authenticated");
+        }
+        String viewerUsername = ((User) authentication.getPrincipal()).getUsername();
+
+        String typeFilter = type == null ? null : type.toLowerCase();
+        if (typeFilter != null && !ClothCatalogRepo.TYPES.contains(typeFilter)) {
+            return ResponseEntity.badRequest().body("Invalid clothing type");
+        }
+        return ResponseEntity.ok().body(clothServices.getCatalogPage(viewerUsername, typeFilter, after, size));
+    }
+
+    // Declared as ResponseEntity<StreamingResponseBody>: Spring MVC only
+    // streams bodies whose declared type says so, so errors are streamed too
+    @GetMapping("/outfits/stream")
+    public ResponseEntity<StreamingResponseBody> streamClothes(
+        @RequestParam(required = false) String type,
+        @RequestParam(defaultValue = "0") long after
+    ) {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null || !(authentication.getPrincipal() instanceof User)) {
+            return streamedBadRequest("User not authenticated");
+        }
+        String viewerUsername = ((User) authentication.getPrincipal()).getUsername();
+
+        String typeFilter = type == null ? null : type.toLowerCase();
+        if (typeFilter != null && !ClothCatalogRepo.TYPES.contains(typeFilter)) {
+            return streamedBadRequest("Invalid clothing type");
+        }
+        StreamingResponseBody body = out -> clothServices.streamCatalog(viewerUsername, typeFilter, after, out);
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(body);
+    }
+
+    private static ResponseEntity<StreamingResponseBody> streamedBadRequest(String message) {
+        return ResponseEntity.badRequest().contentType(MediaType.TEXT_PLAIN)
+            .body(out -> out.write(message.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    @GetMapping("/catalog")
+    public ResponseEntity<?> browseCatalog(
+        ClothFilter filter,
+        @RequestParam(defaultValue = "0") long after,
+        @RequestParam(defaultValue = "50") int size
+    ) {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null || !(authentication.getPrincipal() instanceof User)) {
+            return ResponseEntity.badRequest().body("User not authenticated");
+        }
+        String viewerUsername = ((User) authentication.getPrincipal()).getUsername();
+
+        String invalid = invalidFilter(filter);
+        if (invalid != null) {
+            return ResponseEntity.badRequest().body(invalid);
+        }
+        return ResponseEntity.ok().body(clothServices.browseCatalog(viewerUsername, filter, after, size));
+    }
+
+    @GetMapping("/catalog/facets")
+    public ResponseEntity<?> searchFacets(
+        ClothFilter filter,
+        @RequestParam(defaultValue = "0") long after,
+        @RequestParam(defaultValue = "50") int size
+    ) {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null || !(authentication.getPrincipal() instanceof User)) {
+            return ResponseEntity.badRequest().body("User not authenticated");
+        }
+        String viewerUsername = ((User) authentication.getPrincipal()).getUsername();
+
+        String invalid = invalidFilter(filter);
+        if (invalid != null) {
+            return ResponseEntity.badRequest().body(invalid);
+        }
+        return ResponseEntity.ok().body(clothServices.searchFacets(viewerUsername, filter, after, size));
+    }
+
+    // Shared by the catalog endpoints; null when the filter is usable
+    private static String invalidFilter(ClothFilter filter) {
+        if (filter.getType() != null && !ClothCatalogRepo.TYPES.contains(filter.getType())) {
+            return "Invalid clothing type";
+        }
+        Double minSize = filter.getMinSize();
+        Double maxSize = filter.getMaxSize();
+        if ((minSize != null && !Double.isFinite(minSize)) || (maxSize != null && !Double.isFinite(maxSize))
+                || (minSize != null && maxSize != null && minSize > maxSize)) {
+            return "Invalid size range";
+        }
+        return null;
     }
 
     @PostMapping("/share-wardrobe")
@@ -149,13 +308,34 @@ public class ClothController {
         return ResponseEntity.badRequest().body("User not authenticated");
     }
 
+    @GetMapping("/sync")
+    public ResponseEntity<?> syncWardrobe(@RequestParam(defaultValue = "0") long since) {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication != null && authentication.getPrincipal() instanceof User) {
+            User user = (User) authentication.getPrincipal();
+            return ResponseEntity.ok().body(clothServices.getChangesSince(user.getUsername(), since));
+        }
+        return ResponseEntity.badRequest().body("User not authenticated");
+    }
+
     @GetMapping("/shared-wardrobe-items")
-    public ResponseEntity<?> getSharedWardrobeItems(@RequestParam String ownerUsername) {
+    public ResponseEntity<?> getSharedWardrobeItems(@RequestParam String ownerUsername, WebRequest request) {
         Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
         if (authentication != null && authentication.getPrincipal() instanceof User) {
             User user = (User) authentication.getPrincipal();
+            // Authorize before a 304 can confirm a cached copy
+            if (!clothServices.isWardrobeShared(ownerUsername, user.getUsername())) {
+                return ResponseEntity.badRequest().body("Wardrobe not shared");
+            }
+            String etag = clothServices.getCatalogETag("shared-wardrobe-items", ownerUsername, user.getUsername());
+            if (request.checkNotModified(etag)) {
+                return null;
+            }
             try {
-                return ResponseEntity.ok().body(clothServices.getSharedWardrobeItems(ownerUsername, user.getUsername()));
+                return ResponseEntity.ok()
+                    .cacheControl(CacheControl.noCache().cachePrivate())
+                    .eTag(etag)
+                    .body(clothServices.getSharedWardrobeItems(ownerUsername, user.getUsername()));
             } catch (RuntimeException e) {
                 return ResponseEntity.badRequest().body(e.getMessage());
             }
@@ -4,11 +4,14 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
-import org.springframework.security.core.userdetails.User;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestParam;
 
+import com.backend.truefit3d.Model.User;
 import com.backend.truefit3d.Service.ClothServices;
 
 import java.util.Map;
@@ -29,8 +32,12 @@ public class RecommendationController {
         
         if (authentication != null && authentication.getPrincipal() instanceof User) {
             User user = (User) authentication.getPrincipal();
-            String res = clothServices.favoriteCloth(clothId, user.getID());
-            return ResponseEntity.ok().body(res);
+            try {
+                String res = clothServices.favoriteCloth(clothId, user.getUsername());
+                return ResponseEntity.ok().body(res);
+            } catch (RuntimeException e) {
+                return ResponseEntity.badRequest().body(e.getMessage());
+            }
         }
         return ResponseEntity.badRequest().body("User not authenticated");
     }
@@ -43,10 +50,14 @@ public class RecommendationController {
         }
         
         Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-        if (authentication != null && authentication.isAuthenticated() && authentication.getPrincipal() instanceof String) {
-            String username = (String) authentication.getPrincipal();
-            String res = clothServices.unfavoriteCloth(clothId, username);
-            return ResponseEntity.ok().body(res);
+        if (authentication != null && authentication.getPrincipal() instanceof User) {
+            User user = (User) authentication.getPrincipal();
+            try {
+                String res = clothServices.unfavoriteCloth(clothId, user.getUsername());
+                return ResponseEntity.ok().body(res);
+            } catch (RuntimeException e) {
+                return ResponseEntity.badRequest().body(e.getMessage());
+            }
         }
         return ResponseEntity.badRequest().body("User not authenticated");
     }
@@ -61,8 +72,12 @@ public class RecommendationController {
         Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
         if (authentication != null && authentication.getPrincipal() instanceof User) {
             User user = (User) authentication.getPrincipal();
-            String res = clothServices.LikeCloth(code, user.getUsername());
-            return ResponseEntity.ok().body(res);
+            try {
+                String res = clothServices.LikeCloth(code, user.getUsername());
+                return ResponseEntity.ok().body(res);
+            } catch (RuntimeException e) {
+                return ResponseEntity.badRequest().body(e.getMessage());
+            }
         }
         return ResponseEntity.badRequest().body("User not authenticated");
     }
@@ -77,9 +92,100 @@ public class RecommendationController {
         Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
         if (authentication != null && authentication.getPrincipal() instanceof User) {
             User user = (User) authentication.getPrincipal();
-            String res = clothServices.dislikeCloth(code, user.getUsername());
-            return ResponseEntity.ok().body(res);
+            try {
+                String res = clothServices.dislikeCloth(code, user.getUsername());
+                return ResponseEntity.ok().body(res);
+            } catch (RuntimeException e) {
+                return ResponseEntity.badRequest().body(e.getMessage());
+            }
         }
         return ResponseEntity.badRequest().body("User not authenticated");
     }
+
+    @PostMapping("/try-on")
+    public ResponseEntity<?> tryOn(@RequestBody Map<String, String> request) {
+        String clothId = request.get("clothId");
+        if (clothId == null) {
+            return ResponseEntity.badRequest().body("Cloth ID is required");
+        }
+        try {
+            return ResponseEntity.ok().body(clothServices.tryOn(clothId));
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
+    @GetMapping("/trending")
+    public ResponseEntity<?> trending(@RequestParam(defaultValue = "20") int limit) {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication != null && authentication.getPrincipal() instanceof User) {
+            User user = (User) authentication.getPrincipal();
+            return ResponseEntity.ok(clothServices.getTrending(user.getUsername(), limit));
+        }
+        return ResponseEntity.badRequest().body("User not authenticated");
+    }
+
+    @GetMapping("/similar/{clothId}")
+    public ResponseEntity<?> similar(@PathVariable String clothId, @RequestParam(defaultValue = "10") int limit) {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication != null && authentication.getPrincipal() instanceof User) {
+            User user = (User) authentication.getPrincipal();
+            try {
+                return ResponseEntity.ok(clothServices.getSimilarItems(user.getUsername(), clothId, limit));
+            } catch (RuntimeException e) {
+                return ResponseEntity.badRequest().body(e.getMessage());
+            }
+        }
+        return ResponseEntity.badRequest().body("User not authenticated");
+    }
+
+    @GetMapping("/recommendations")
+    public ResponseEntity<?> recommendations(@RequestParam(defaultValue = "20") int limit) {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication != null && authentication.getPrincipal() instanceof User) {
+            User user = (User) authentication.getPrincipal();
+            return ResponseEntity.ok(clothServices.getRecommendations(user.getUsername(), limit));
+        }
+        return ResponseEntity.badRequest().body("User not authenticated");
+    }
+
+    @GetMapping("/outfit-suggestions")
+    public ResponseEntity<?> outfitSuggestions(@RequestParam(defaultValue = "10") int limit) {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication != null && authentication.getPrincipal() instanceof User) {
+            User user = (User) authentication.getPrincipal();
+            return ResponseEntity.ok(clothServices.generateOutfits(user.getUsername(), limit));
+        }
+        return ResponseEntity.badRequest().body("User not authenticated");
+    }
+
+    @GetMapping("/favorite-clothes")
+    public ResponseEntity<?> favoriteClothes() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication != null && authentication.getPrincipal() instanceof User) {
+            User user = (User) authentication.getPrincipal();
+            return ResponseEntity.ok(clothServices.getFavoriteClothIds(user.getUsername()));
+        }
+        return ResponseEntity.badRequest().body("User not authenticated");
+    }
+
+    @GetMapping("/is-favorite")
+    public ResponseEntity<?> isFavorite(@RequestParam String clothId) {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication != null && authentication.getPrincipal() instanceof User) {
+            User user = (User) authentication.getPrincipal();
+            try {
+                return ResponseEntity.ok(clothServices.isFavorite(user.getUsername(), clothId));
+            } catch (RuntimeException e) {
+                return ResponseEntity.badRequest().body(e.getMessage());
+            }
+        }
+        return ResponseEntity.badRequest().body("User not authenticated");
+    }
+
+    // Live like/dislike totals, a primary key lookup on the aggregate row
+    @GetMapping("/combination-reactions")
+    public ResponseEntity<?> combinationReactions(@RequestParam String code) {
+        return ResponseEntity.ok(clothServices.getCombinationReactions(code));
+    }
 }
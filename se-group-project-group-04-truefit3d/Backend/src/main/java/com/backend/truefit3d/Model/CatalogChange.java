@@ -0,0 +1,107 @@
+package com.backend.truefit3d.Model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+
+// One row per change to a garment, favorite or share. The identity id doubles
+// as the sync version, so "changes since N" is a primary key range scan.
+// Rows are only written through CatalogChangeRepo.append, which makes ids
+// commit in order; a client never moves past a change still being written.
+@Entity
+@Table(name = "catalog_changes", indexes = {
+    @Index(name = "idx_catalog_changes_username", columnList = "username"),
+    @Index(name = "idx_catalog_changes_peer_username", columnList = "peerUsername")
+})
+public class CatalogChange {
+    public static final String KIND_CLOTH = "cloth";
+    public static final String KIND_FAVORITE = "favorite";
+    public static final String KIND_SHARE = "share";
+
+    public static final String OP_UPSERT = "upsert";
+    public static final String OP_DELETE = "delete";
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false)
+    private String kind;
+
+    @Column(nullable = false)
+    private String entityId;
+
+    @Column(nullable = false)
+    private String op;
+
+    // Null for changes every user sees (garments)
+    @Column(nullable = true)
+    private String username;
+
+    // Second user a share change is visible to
+    @Column(nullable = true)
+    private String peerUsername;
+
+    public CatalogChange() {
+    }
+
+    public CatalogChange(String kind, String entityId, String op, String username, String peerUsername) {
+        this.kind = kind;
+        this.entityId = entityId;
+        this.op = op;
+        this.username = username;
+        this.peerUsername = peerUsername;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public String getKind() {
+        return kind;
+    }
+
+    public void setKind(String kind) {
+        this.kind = kind;
+    }
+
+    public String getEntityId() {
+        return entityId;
+    }
+
+    public void setEntityId(String entityId) {
+        this.entityId = entityId;
+    }
+
+    public String getOp() {
+        return op;
+    }
+
+    public void setOp(String op) {
+        this.op = op;
+    }
+
+    public String getUsername() {
+        return username;
+    }
+
+    public void setUsername(String username) {
+        this.username = username;
+    }
+
+    public String getPeerUsername() {
+        return peerUsername;
+    }
+
+    public void setPeerUsername(String peerUsername) {
+        this.peerUsername = peerUsername;
+    }
+}
@@ -1,11 +1,15 @@
 package com.backend.truefit3d.Model;
 
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
 import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
 import lombok.AllArgsConstructor;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
@@ -16,18 +20,31 @@ import lombok.Setter;
 @NoArgsConstructor
 @AllArgsConstructor
 @Entity
-@Table(name = "FavCloth")
+@Table(name = "FavCloth", uniqueConstraints = @UniqueConstraint(name = "uk_fav_cloth_clothid_username", columnNames = {"clothid", "username"}))
 public class ClothCombination {
+    // "<top id>-<bottom id>", as handed out by OutfitGenerator
+    private static final Pattern OUTFIT_CODE = Pattern.compile("(\\d{1,9})-(\\d{1,9})");
+
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
     @Column(nullable = false)
     String clothid;
-    @Column(nullable = true)
+    @Column(nullable = false)
     Boolean accepted;
     @Column(nullable = false)
     String username;
 
+    // The two cloth ids of a generated outfit code; empty for codes in any
+    // other format, whose parts need not be cloth ids at all
+    public static int[] outfitClothIdsOf(String code) {
+        Matcher matcher = OUTFIT_CODE.matcher(code);
+        if (!matcher.matches()) {
+            return new int[0];
+        }
+        return new int[] { Integer.parseInt(matcher.group(1)), Integer.parseInt(matcher.group(2)) };
+    }
+
     public Long getId() {
         return id;
     }
@@ -0,0 +1,42 @@
+package com.backend.truefit3d.Model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+
+// Visual descriptor of a garment's photo, computed once at upload so image
+// search never has to read stored image files again.
+@Entity
+@Table(name = "cloth_descriptors")
+public class ClothDescriptor {
+    @Id
+    private Long clothId;
+
+    @Column(nullable = false)
+    private String ownerUsername;
+
+    @Column(nullable = false)
+    private byte[] descriptor;
+
+    public ClothDescriptor() {
+    }
+
+    public ClothDescriptor(Long clothId, String ownerUsername, byte[] descriptor) {
+        this.clothId = clothId;
+        this.ownerUsername = ownerUsername;
+        this.descriptor = descriptor;
+    }
+
+    public Long getClothId() {
+        return clothId;
+    }
+
+    public String getOwnerUsername() {
+        return ownerUsername;
+    }
+
+    public byte[] getDescriptor() {
+        return descriptor;
+    }
+}
@@ -0,0 +1,79 @@
+package com.backend.truefit3d.Model;
+
+// Bound from query parameters on the catalog browse endpoints; any field
+// left null does not constrain the result.
+public class ClothFilter {
+    private String type;
+    private String color;
+    private String brand;
+    private String material;
+    private String sizeMetrics;
+    // A color name matched against the colors found in the garment's photo
+    private String palette;
+    private Double minSize;
+    private Double maxSize;
+
+    public String getType() {
+        return type;
+    }
+
+    public void setType(String type) {
+        this.type = type == null ? null : type.toLowerCase();
+    }
+
+    public String getColor() {
+        return color;
+    }
+
+    public void setColor(String color) {
+        this.color = color;
+    }
+
+    public String getBrand() {
+        return brand;
+    }
+
+    public void setBrand(String brand) {
+        this.brand = brand;
+    }
+
+    public String getMaterial() {
+        return material;
+    }
+
+    public void setMaterial(String material) {
+        this.material = material;
+    }
+
+    public String getSizeMetrics() {
+        return sizeMetrics;
+    }
+
+    public void setSizeMetrics(String sizeMetrics) {
+        this.sizeMetrics = sizeMetrics;
+    }
+
+    public String getPalette() {
+        return palette;
+    }
+
+    public void setPalette(String palette) {
+        this.palette = palette == null ? null : palette.toLowerCase();
+    }
+
+    public Double getMinSize() {
+        return minSize;
+    }
+
+    public void setMinSize(Double minSize) {
+        this.minSize = minSize;
+    }
+
+    public Double getMaxSize() {
+        return maxSize;
+    }
+
+    public void setMaxSize(Double maxSize) {
+        this.maxSize = maxSize;
+    }
+}
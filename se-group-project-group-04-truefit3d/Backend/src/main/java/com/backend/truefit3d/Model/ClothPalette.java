@@ -0,0 +1,34 @@
+package com.backend.truefit3d.Model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+
+// Dominant colors extracted from a garment's photo, packed as 0xSSRRGGBB
+// (see DominantColors), most dominant first.
+@Entity
+@Table(name = "cloth_palettes")
+public class ClothPalette {
+    @Id
+    private Long clothId;
+
+    @Column(nullable = false)
+    private int[] colors;
+
+    public ClothPalette() {
+    }
+
+    public ClothPalette(Long clothId, int[] colors) {
+        this.clothId = clothId;
+        this.colors = colors;
+    }
+
+    public Long getClothId() {
+        return clothId;
+    }
+
+    public int[] getColors() {
+        return colors;
+    }
+}
@@ -0,0 +1,40 @@
+package com.backend.truefit3d.Model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+
+// Lifetime engagement totals per garment, written in batches by
+// PopularityTracker rather than on every event.
+@Entity
+@Table(name = "cloth_popularity")
+public class ClothPopularity {
+    @Id
+    private Long clothId;
+
+    @Column(nullable = false)
+    private long favorites;
+
+    @Column(nullable = false)
+    private long likes;
+
+    @Column(nullable = false)
+    private long tryOns;
+
+    public Long getClothId() {
+        return clothId;
+    }
+
+    public long getFavorites() {
+        return favorites;
+    }
+
+    public long getLikes() {
+        return likes;
+    }
+
+    public long getTryOns() {
+        return tryOns;
+    }
+}
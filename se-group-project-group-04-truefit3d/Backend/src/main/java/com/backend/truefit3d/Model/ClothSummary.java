@@ -0,0 +1,91 @@
+package com.backend.truefit3d.Model;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.backend.truefit3d.Utills.SignedImageUrlSerializer;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+
+// Flat, read-only listing row for a garment. Carries only the columns the
+// wardrobe pages render, so listing reads never hydrate Cloth entities.
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class ClothSummary {
+    private final Long id;
+    private final String type;
+    private final String brand;
+    private final double size;
+    private final String sizeMetrics;
+    private final String color;
+    private final String material;
+    private final String imgUrl;
+    private final String neckType;
+    private final String sleeveType;
+    private final String fitType;
+    private final String skirtType;
+
+    public ClothSummary(Long id, String type, String brand, double size, String sizeMetrics, String color,
+            String material, String imgUrl, String neckType, String sleeveType, String fitType, String skirtType) {
+        this.id = id;
+        this.type = type;
+        this.brand = brand;
+        this.size = size;
+        this.sizeMetrics = sizeMetrics;
+        this.color = color;
+        this.material = material;
+        this.imgUrl = imgUrl;
+        this.neckType = neckType;
+        this.sleeveType = sleeveType;
+        this.fitType = fitType;
+        this.skirtType = skirtType;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public String getType() {
+        return type;
+    }
+
+    public String getBrand() {
+        return brand;
+    }
+
+    public double getSize() {
+        return size;
+    }
+
+    @JsonProperty("size_metrics")
+    public String getSizeMetrics() {
+        return sizeMetrics;
+    }
+
+    public String getColor() {
+        return color;
+    }
+
+    public String getMaterial() {
+        return material;
+    }
+
+    // Stored as a key; clients get a signed, expiring URL
+    @JsonSerialize(using = SignedImageUrlSerializer.class)
+    public String getImgUrl() {
+        return imgUrl;
+    }
+
+    public String getNeckType() {
+        return neckType;
+    }
+
+    public String getSleeveType() {
+        return sleeveType;
+    }
+
+    public String getFitType() {
+        return fitType;
+    }
+
+    public String getSkirtType() {
+        return skirtType;
+    }
+}
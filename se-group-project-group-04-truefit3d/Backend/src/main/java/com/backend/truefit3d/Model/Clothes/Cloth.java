@@ -9,8 +9,10 @@ import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.Inheritance;
 import jakarta.persistence.InheritanceType;
+import jakarta.persistence.Table;
 import lombok.Getter;
 import lombok.Setter;
 
@@ -18,6 +20,7 @@ import lombok.Setter;
 @Setter
 @Entity
 @Inheritance(strategy=InheritanceType.JOINED)
+@Table(indexes = @Index(name = "idx_cloth_owner_username", columnList = "ownerUsername"))
 public class Cloth {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -44,6 +47,10 @@ public class Cloth {
     @Column(nullable = false)
     private String imgUrl;
 
+    // Nullable so garments uploaded before ownership existed still load
+    @Column(nullable = true)
+    private String ownerUsername;
+
     public Long getId() {
         return id;
     }
@@ -107,4 +114,12 @@ public class Cloth {
     public void setMaterial(String material) {
         this.material = material;
     }
+
+    public String getOwnerUsername() {
+        return ownerUsername;
+    }
+
+    public void setOwnerUsername(String ownerUsername) {
+        this.ownerUsername = ownerUsername;
+    }
 }
\ No newline at end of file
@@ -25,8 +25,6 @@ public class Jeans extends Cloth {
     @Column(nullable = false)
     private String fitType; // skinny, straight, bootcut
 
-    @Column(nullable = false)
-    private String material;
     public Long getId() {
         return id;
     }
@@ -42,12 +40,4 @@ public class Jeans extends Cloth {
     public void setFitType(String fitType) {
         this.fitType = fitType;
     }
-    
-    public String getMaterial() {
-        return material;
-    }
-    
-    public void setMaterial(String material) {
-        this.material = material;
-    }    
 }
@@ -25,8 +25,6 @@ public class Skirt extends Cloth {
     @Column(nullable = false)
     private String skirtType; //// pencil, a-line, pleated
 
-    @Column(nullable = false)
-    private String material;
     public Long getId() {
         return id;
     }
@@ -42,13 +40,4 @@ public class Skirt extends Cloth {
     public void setSkirtType(String skirtType) {
         this.skirtType = skirtType;
     }
-    
-    public String getMaterial() {
-        return material;
-    }
-    
-    public void setMaterial(String material) {
-        this.material = material;
-    }
-    
 }
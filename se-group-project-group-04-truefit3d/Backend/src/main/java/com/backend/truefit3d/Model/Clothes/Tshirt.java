@@ -27,8 +27,6 @@ public class Tshirt extends Cloth {
     @Column(nullable = false)
     private String neckType;
 
-    @Column(nullable = false)
-    private String material;
     public Long getId() {
         return id;
     }
@@ -52,12 +50,4 @@ public class Tshirt extends Cloth {
     public void setNeckType(String neckType) {
         this.neckType = neckType;
     }
-    
-    public String getMaterial() {
-        return material;
-    }
-    
-    public void setMaterial(String material) {
-        this.material = material;
-    }
 }
@@ -0,0 +1,42 @@
+package com.backend.truefit3d.Model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+
+// Running like/dislike totals per combination, kept in step with the votes in
+// FavCloth by the same statement that writes the vote.
+@Entity
+@Table(name = "combination_reactions")
+public class CombinationReaction {
+    @Id
+    private String clothid;
+
+    @Column(nullable = false)
+    private long likes;
+
+    @Column(nullable = false)
+    private long dislikes;
+
+    public CombinationReaction() {
+    }
+
+    public CombinationReaction(String clothid, long likes, long dislikes) {
+        this.clothid = clothid;
+        this.likes = likes;
+        this.dislikes = dislikes;
+    }
+
+    public String getClothid() {
+        return clothid;
+    }
+
+    public long getLikes() {
+        return likes;
+    }
+
+    public long getDislikes() {
+        return dislikes;
+    }
+}
@@ -0,0 +1,50 @@
+package com.backend.truefit3d.Model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+
+// Perceptual hash of a garment's photo and the stored file it points to.
+// Garments linked to someone else's identical photo share that file.
+@Entity
+@Table(name = "image_hashes")
+public class ImageHash {
+    @Id
+    private Long clothId;
+
+    @Column(nullable = false)
+    private String ownerUsername;
+
+    @Column(nullable = false)
+    private long hash;
+
+    @Column(nullable = false)
+    private String fileName;
+
+    public ImageHash() {
+    }
+
+    public ImageHash(Long clothId, String ownerUsername, long hash, String fileName) {
+        this.clothId = clothId;
+        this.ownerUsername = ownerUsername;
+        this.hash = hash;
+        this.fileName = fileName;
+    }
+
+    public Long getClothId() {
+        return clothId;
+    }
+
+    public String getOwnerUsername() {
+        return ownerUsername;
+    }
+
+    public long getHash() {
+        return hash;
+    }
+
+    public String getFileName() {
+        return fileName;
+    }
+}
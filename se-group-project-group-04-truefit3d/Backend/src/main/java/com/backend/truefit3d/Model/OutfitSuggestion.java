@@ -0,0 +1,32 @@
+package com.backend.truefit3d.Model;
+
+public class OutfitSuggestion {
+    private final String code;
+    private final ClothSummary top;
+    private final ClothSummary bottom;
+    private final double score;
+
+    public OutfitSuggestion(String code, ClothSummary top, ClothSummary bottom, double score) {
+        this.code = code;
+        this.top = top;
+        this.bottom = bottom;
+        this.score = score;
+    }
+
+    // Combination code to send to /like-combination and /dislike-combination
+    public String getCode() {
+        return code;
+    }
+
+    public ClothSummary getTop() {
+        return top;
+    }
+
+    public ClothSummary getBottom() {
+        return bottom;
+    }
+
+    public double getScore() {
+        return score;
+    }
+}
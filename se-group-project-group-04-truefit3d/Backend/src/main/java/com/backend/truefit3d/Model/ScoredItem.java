@@ -0,0 +1,19 @@
+package com.backend.truefit3d.Model;
+
+public class ScoredItem {
+    private final ClothSummary item;
+    private final double score;
+
+    public ScoredItem(ClothSummary item, double score) {
+        this.item = item;
+        this.score = score;
+    }
+
+    public ClothSummary getItem() {
+        return item;
+    }
+
+    public double getScore() {
+        return score;
+    }
+}
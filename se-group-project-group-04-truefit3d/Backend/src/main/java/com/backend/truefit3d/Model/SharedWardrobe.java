@@ -5,7 +5,9 @@ import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
 import lombok.AllArgsConstructor;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
@@ -16,7 +18,10 @@ import lombok.Setter;
 @NoArgsConstructor
 @AllArgsConstructor
 @Entity
-@Table(name = "SharedWardrobe")
+@Table(name = "SharedWardrobe",
+    uniqueConstraints = @UniqueConstraint(name = "uk_shared_wardrobe_owner_viewer",
+        columnNames = { "ownerUsername", "sharedWithUsername" }),
+    indexes = @Index(name = "idx_shared_wardrobe_viewer", columnList = "sharedWithUsername"))
 public class SharedWardrobe {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -0,0 +1,22 @@
+package com.backend.truefit3d.Model;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+public class SharedWardrobeItem {
+    private final ClothSummary item;
+    private final boolean favorite;
+
+    public SharedWardrobeItem(ClothSummary item, boolean favorite) {
+        this.item = item;
+        this.favorite = favorite;
+    }
+
+    public ClothSummary getItem() {
+        return item;
+    }
+
+    @JsonProperty("isFavorite")
+    public boolean isFavorite() {
+        return favorite;
+    }
+}
@@ -0,0 +1,33 @@
+package com.backend.truefit3d.Model;
+
+import java.util.List;
+
+import com.fasterxml.jackson.annotation.JsonPropertyOrder;
+
+// Typed response for /shared-wardrobe-items; serializes to the same JSON shape
+// as the per-item maps it replaces.
+@JsonPropertyOrder({ "tshirts", "jeans", "skirts" })
+public class SharedWardrobeView {
+    private final List<SharedWardrobeItem> tshirts;
+    private final List<SharedWardrobeItem> jeans;
+    private final List<SharedWardrobeItem> skirts;
+
+    public SharedWardrobeView(List<SharedWardrobeItem> tshirts, List<SharedWardrobeItem> jeans,
+            List<SharedWardrobeItem> skirts) {
+        this.tshirts = tshirts;
+        this.jeans = jeans;
+        this.skirts = skirts;
+    }
+
+    public List<SharedWardrobeItem> getTshirts() {
+        return tshirts;
+    }
+
+    public List<SharedWardrobeItem> getJeans() {
+        return jeans;
+    }
+
+    public List<SharedWardrobeItem> getSkirts() {
+        return skirts;
+    }
+}
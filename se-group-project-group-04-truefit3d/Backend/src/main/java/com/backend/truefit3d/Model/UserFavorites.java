@@ -0,0 +1,38 @@
+package com.backend.truefit3d.Model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+
+// All favorite cloth ids of a user as one serialized RoaringBitmap, so a
+// user's favorites are a single row however many items they heart.
+@Entity
+@Table(name = "user_favorites")
+public class UserFavorites {
+    @Id
+    private String username;
+
+    @Column(nullable = false)
+    private byte[] clothIds;
+
+    public UserFavorites() {
+    }
+
+    public UserFavorites(String username, byte[] clothIds) {
+        this.username = username;
+        this.clothIds = clothIds;
+    }
+
+    public String getUsername() {
+        return username;
+    }
+
+    public byte[] getClothIds() {
+        return clothIds;
+    }
+
+    public void setClothIds(byte[] clothIds) {
+        this.clothIds = clothIds;
+    }
+}
@@ -0,0 +1,41 @@
+package com.backend.truefit3d.Repo;
+
+import java.util.List;
+
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.backend.truefit3d.Model.CatalogChange;
+
+@Repository
+public interface CatalogChangeRepo extends JpaRepository<CatalogChange, Long> {
+    // Postgres advisory lock key, unique to the change log
+    long APPEND_LOCK = 4_100_001L;
+
+    @Query("SELECT c FROM CatalogChange c WHERE c.id > :since"
+            + " AND (c.username IS NULL OR c.username = :username OR c.peerUsername = :username)"
+            + " ORDER BY c.id")
+    List<CatalogChange> findVisibleSince(@Param("since") long since, @Param("username") String username, Limit limit);
+
+    // Ids are the sync cursor, so they have to become visible in id order. A
+    // writer holds this lock from just before its insert until it commits, so
+    // no id is handed out while a smaller one is still uncommitted.
+    @Query(value = "SELECT 1 FROM pg_advisory_xact_lock(" + APPEND_LOCK + ")", nativeQuery = true)
+    int lockAppends();
+
+    @Transactional
+    default CatalogChange append(CatalogChange change) {
+        lockAppends();
+        return save(change);
+    }
+
+    @Transactional
+    default List<CatalogChange> appendAll(List<CatalogChange> changes) {
+        lockAppends();
+        return saveAll(changes);
+    }
+}
@@ -0,0 +1,147 @@
+package com.backend.truefit3d.Repo;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.ObjIntConsumer;
+
+import javax.sql.DataSource;
+
+import org.roaringbitmap.RoaringBitmap;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.backend.truefit3d.Model.ClothSummary;
+
+@Repository
+public class ClothCatalogRepo {
+    public static final List<String> TYPES = List.of("tshirt", "jeans", "skirt");
+
+    private static final int STREAM_FETCH_SIZE = 500;
+
+    private static final String SELECT = "SELECT c.id, c.brand, c.size, c.size_metrics, c.color, c.img_url,"
+            + " CASE WHEN t.id IS NOT NULL THEN 'tshirt' WHEN j.id IS NOT NULL THEN 'jeans'"
+            + " WHEN s.id IS NOT NULL THEN 'skirt' END AS typ,"
+            + " c.material,"
+            + " t.neck_type, t.sleeve_type, j.fit_type, s.skirt_type"
+            + " FROM cloth c"
+            + " LEFT JOIN tshirt t ON t.id = c.id"
+            + " LEFT JOIN jeans j ON j.id = c.id"
+            + " LEFT JOIN skirt s ON s.id = c.id"
+            + " WHERE c.id > ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final JdbcTemplate streamingJdbcTemplate;
+
+    public ClothCatalogRepo(DataSource dataSource) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        // Postgres only uses a server-side cursor when a fetch size is set and
+        // the connection is not in auto-commit mode (see streamAfter).
+        this.streamingJdbcTemplate = new JdbcTemplate(dataSource);
+        this.streamingJdbcTemplate.setFetchSize(STREAM_FETCH_SIZE);
+    }
+
+    // Garments of the given owners only
+    public List<ClothSummary> findPageAfter(String type, List<String> owners, long afterId, int limit) {
+        List<Object> args = new ArrayList<>(owners.size() + 2);
+        args.add(afterId);
+        args.addAll(owners);
+        args.add(limit);
+        return jdbcTemplate.query(SELECT + typeFilter(type) + ownerFilter(owners) + " ORDER BY c.id LIMIT ?",
+                (rs, rowNum) -> mapRow(rs), args.toArray());
+    }
+
+    // Every garment, for loading the in-memory indexes
+    public void streamAfter(String type, long afterId, Consumer<ClothSummary> consumer) {
+        streamAfter(type, null, afterId, consumer);
+    }
+
+    // Garments of the given owners, or of everyone when owners is null
+    @Transactional(readOnly = true)
+    public void streamAfter(String type, List<String> owners, long afterId, Consumer<ClothSummary> consumer) {
+        List<Object> args = new ArrayList<>();
+        args.add(afterId);
+        if (owners != null) {
+            args.addAll(owners);
+        }
+        streamingJdbcTemplate.query(SELECT + typeFilter(type) + (owners == null ? "" : ownerFilter(owners))
+                + " ORDER BY c.id", (RowCallbackHandler) rs -> consumer.accept(mapRow(rs)), args.toArray());
+    }
+
+    public boolean exists(int clothId) {
+        return Boolean.TRUE.equals(jdbcTemplate.queryForObject("SELECT EXISTS (SELECT 1 FROM cloth WHERE id = ?)",
+                Boolean.class, clothId));
+    }
+
+    public void forEachOwner(ObjIntConsumer<String> consumer) {
+        jdbcTemplate.query("SELECT id, owner_username FROM cloth WHERE owner_username IS NOT NULL",
+                (RowCallbackHandler) rs -> consumer.accept(rs.getString(2), Math.toIntExact(rs.getLong(1))));
+    }
+
+    public RoaringBitmap findAllIds() {
+        RoaringBitmap ids = new RoaringBitmap();
+        jdbcTemplate.query("SELECT id FROM cloth", (RowCallbackHandler) rs -> ids.add(Math.toIntExact(rs.getLong(1))));
+        return ids;
+    }
+
+    // Tshirt, Jeans and Skirt used to redeclare material, which Hibernate then
+    // kept in a NOT NULL column of each subtype table and left cloth.material
+    // null. Copies those values up and drops the old columns, which inserts
+    // no longer fill.
+    public void moveSubtypeMaterials() {
+        for (String table : TYPES) {
+            Integer columns = jdbcTemplate.queryForObject("SELECT count(*) FROM information_schema.columns"
+                    + " WHERE table_schema = current_schema() AND table_name = ? AND column_name = 'material'",
+                    Integer.class, table);
+            if (columns != null && columns > 0) {
+                jdbcTemplate.update("UPDATE cloth c SET material = s.material FROM " + table + " s"
+                        + " WHERE s.id = c.id AND c.material IS NULL");
+                jdbcTemplate.execute("ALTER TABLE " + table + " DROP COLUMN material");
+            }
+        }
+    }
+
+    private static String ownerFilter(List<String> owners) {
+        if (owners.isEmpty()) {
+            return " AND FALSE";
+        }
+        return " AND c.owner_username IN (" + String.join(", ", Collections.nCopies(owners.size(), "?")) + ")";
+    }
+
+    private static String typeFilter(String type) {
+        if (type == null) {
+            return "";
+        }
+        switch (type) {
+            case "tshirt":
+                return " AND t.id IS NOT NULL";
+            case "jeans":
+                return " AND j.id IS NOT NULL";
+            case "skirt":
+                return " AND s.id IS NOT NULL";
+            default:
+                throw new IllegalArgumentException("Invalid clothing type");
+        }
+    }
+
+    private static ClothSummary mapRow(ResultSet rs) throws SQLException {
+        return new ClothSummary(
+                rs.getLong("id"),
+                rs.getString("typ"),
+                rs.getString("brand"),
+                rs.getDouble("size"),
+                rs.getString("size_metrics"),
+                rs.getString("color"),
+                rs.getString("material"),
+                rs.getString("img_url"),
+                rs.getString("neck_type"),
+                rs.getString("sleeve_type"),
+                rs.getString("fit_type"),
+                rs.getString("skirt_type"));
+    }
+}
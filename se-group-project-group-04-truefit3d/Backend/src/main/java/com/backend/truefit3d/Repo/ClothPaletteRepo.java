@@ -0,0 +1,10 @@
+package com.backend.truefit3d.Repo;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import com.backend.truefit3d.Model.ClothPalette;
+
+@Repository
+public interface ClothPaletteRepo extends JpaRepository<ClothPalette, Long> {
+}
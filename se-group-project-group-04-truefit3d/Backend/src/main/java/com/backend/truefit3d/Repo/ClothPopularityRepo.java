@@ -0,0 +1,33 @@
+package com.backend.truefit3d.Repo;
+
+import java.util.List;
+
+import javax.sql.DataSource;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public class ClothPopularityRepo {
+    private static final String UPSERT = "INSERT INTO cloth_popularity (cloth_id, favorites, likes, try_ons)"
+            + " VALUES (?, ?, ?, ?)"
+            + " ON CONFLICT (cloth_id) DO UPDATE SET"
+            + " favorites = cloth_popularity.favorites + EXCLUDED.favorites,"
+            + " likes = cloth_popularity.likes + EXCLUDED.likes,"
+            + " try_ons = cloth_popularity.try_ons + EXCLUDED.try_ons";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public ClothPopularityRepo(DataSource dataSource) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+    }
+
+    // Each delta is { clothId, favorites, likes, tryOns }
+    public void addAll(List<long[]> deltas) {
+        jdbcTemplate.batchUpdate(UPSERT, deltas, deltas.size(), (ps, delta) -> {
+            for (int i = 0; i < delta.length; i++) {
+                ps.setLong(i + 1, delta[i]);
+            }
+        });
+    }
+}
@@ -0,0 +1,59 @@
+package com.backend.truefit3d.Repo;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.backend.truefit3d.Model.CombinationReaction;
+
+@Repository
+public interface CombinationReactionRepo extends JpaRepository<CombinationReaction, String> {
+    // Upserts the vote and moves the totals in one statement. The vote only
+    // changes when it differs from the stored one, and since votes are never
+    // null a changed vote always flips the other counter. xmax = 0 tells a
+    // fresh insert apart from an update. Returns 0 when nothing changed.
+    @Modifying
+    @Transactional
+    @Query(value = "WITH vote AS ("
+            + " INSERT INTO fav_cloth (clothid, username, accepted) VALUES (:clothid, :username, :accepted)"
+            + " ON CONFLICT (clothid, username) DO UPDATE SET accepted = EXCLUDED.accepted"
+            + " WHERE fav_cloth.accepted IS DISTINCT FROM EXCLUDED.accepted"
+            + " RETURNING (xmax = 0) AS inserted)"
+            + " INSERT INTO combination_reactions (clothid, likes, dislikes)"
+            + " SELECT :clothid,"
+            + " CASE WHEN :accepted THEN 1 WHEN vote.inserted THEN 0 ELSE -1 END,"
+            + " CASE WHEN NOT :accepted THEN 1 WHEN vote.inserted THEN 0 ELSE -1 END"
+            + " FROM vote"
+            + " ON CONFLICT (clothid) DO UPDATE SET"
+            + " likes = combination_reactions.likes + EXCLUDED.likes,"
+            + " dislikes = combination_reactions.dislikes + EXCLUDED.dislikes",
+            nativeQuery = true)
+    int react(@Param("clothid") String clothid, @Param("username") String username, @Param("accepted") boolean accepted);
+
+    // Votes from before the unique key existed: keep the latest per user
+    @Modifying
+    @Transactional
+    @Query(value = "DELETE FROM fav_cloth f WHERE f.accepted IS NULL OR EXISTS (SELECT 1 FROM fav_cloth n"
+            + " WHERE n.clothid = f.clothid AND n.username = f.username AND n.id > f.id)",
+            nativeQuery = true)
+    int deleteDuplicateVotes();
+
+    @Modifying
+    @Transactional
+    @Query(value = "CREATE UNIQUE INDEX IF NOT EXISTS uk_fav_cloth_clothid_username ON fav_cloth (clothid, username)",
+            nativeQuery = true)
+    void ensureVoteKey();
+
+    // Seeds totals for combinations voted on before totals were kept
+    @Modifying
+    @Transactional
+    @Query(value = "INSERT INTO combination_reactions (clothid, likes, dislikes)"
+            + " SELECT clothid, COUNT(*) FILTER (WHERE accepted), COUNT(*) FILTER (WHERE NOT accepted)"
+            + " FROM fav_cloth GROUP BY clothid"
+            + " ON CONFLICT (clothid) DO NOTHING",
+            nativeQuery = true)
+    int backfill();
+}
@@ -7,4 +7,5 @@ import java.util.List;
 public interface FavoriteClothRepo extends JpaRepository<FavoriteCloth, Long> {
     FavoriteCloth findByClothIdAndUsername(String clothId, String username);
     List<FavoriteCloth> findByUsernameAndIsFavorite(String username, boolean isFavorite);
+    List<FavoriteCloth> findByIsFavorite(boolean isFavorite);
 } 
\ No newline at end of file
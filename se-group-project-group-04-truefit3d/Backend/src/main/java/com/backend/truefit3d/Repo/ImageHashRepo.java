@@ -0,0 +1,10 @@
+package com.backend.truefit3d.Repo;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import com.backend.truefit3d.Model.ImageHash;
+
+@Repository
+public interface ImageHashRepo extends JpaRepository<ImageHash, Long> {
+}
@@ -1,10 +1,19 @@
 package com.backend.truefit3d.Repo;
 
+import java.util.List;
+
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import com.backend.truefit3d.Model.ClothSummary;
 import com.backend.truefit3d.Model.Clothes.Jeans;
 
 @Repository
 public interface JeansRepo extends JpaRepository<Jeans, Long> {
+    @Query("SELECT new com.backend.truefit3d.Model.ClothSummary(j.id, 'jeans', j.brand, j.size, j.size_metrics,"
+            + " j.color, j.material, j.imgUrl, CAST(NULL AS String), CAST(NULL AS String), j.fitType, CAST(NULL AS String))"
+            + " FROM Jeans j WHERE j.ownerUsername = :owner ORDER BY j.id")
+    List<ClothSummary> findSummariesByOwner(@Param("owner") String ownerUsername);
 }
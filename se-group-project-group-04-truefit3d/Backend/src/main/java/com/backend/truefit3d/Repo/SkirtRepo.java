@@ -1,11 +1,19 @@
 package com.backend.truefit3d.Repo;
 
+import java.util.List;
+
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import com.backend.truefit3d.Model.ClothSummary;
 import com.backend.truefit3d.Model.Clothes.Skirt;
 
 @Repository
 public interface SkirtRepo extends JpaRepository<Skirt, Long> {
-    
+    @Query("SELECT new com.backend.truefit3d.Model.ClothSummary(s.id, 'skirt', s.brand, s.size, s.size_metrics,"
+            + " s.color, s.material, s.imgUrl, CAST(NULL AS String), CAST(NULL AS String), CAST(NULL AS String), s.skirtType)"
+            + " FROM Skirt s WHERE s.ownerUsername = :owner ORDER BY s.id")
+    List<ClothSummary> findSummariesByOwner(@Param("owner") String ownerUsername);
 }
@@ -1,11 +1,21 @@
 package com.backend.truefit3d.Repo;
 
+import java.util.List;
+
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import com.backend.truefit3d.Model.ClothSummary;
 import com.backend.truefit3d.Model.Clothes.Tshirt;
 
 @Repository
 public interface TshirtRepo extends JpaRepository<Tshirt, Long> {
-    
+    // Constructor projection: selects only the listed columns and returns
+    // unmanaged DTOs, so nothing is hydrated into the persistence context
+    @Query("SELECT new com.backend.truefit3d.Model.ClothSummary(t.id, 'tshirt', t.brand, t.size, t.size_metrics,"
+            + " t.color, t.material, t.imgUrl, t.neckType, t.sleeveType, CAST(NULL AS String), CAST(NULL AS String))"
+            + " FROM Tshirt t WHERE t.ownerUsername = :owner ORDER BY t.id")
+    List<ClothSummary> findSummariesByOwner(@Param("owner") String ownerUsername);
 }
\ No newline at end of file
@@ -0,0 +1,50 @@
+package com.backend.truefit3d.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Path;
+import java.util.Locale;
+import java.util.regex.Pattern;
+
+// Where uploaded photos and their derivatives are kept. Keys are relative
+// names: <sha256><ext> for originals, <size>/<name>.jpg for derivatives.
+// Writes are all-or-nothing, so a reader sees a whole blob or none. Picked
+// with blob.store: "local" (default) keeps files under upload.directory,
+// "memory" keeps them on the heap for tests. A store on shared storage only
+// needs to implement this interface and return no path from stat().
+public interface BlobStore {
+    Pattern KEY = Pattern.compile("([a-z]+/)?[A-Za-z0-9_-][A-Za-z0-9._-]*");
+
+    // Streams an upload in under <sha256><extension> and returns that key.
+    // Identical bytes are only written once.
+    String store(InputStream in, String extension) throws IOException;
+
+    // Writes or replaces the blob under key
+    void put(String key, byte[] bytes) throws IOException;
+
+    boolean exists(String key);
+
+    // Null for invalid keys or missing blobs
+    Blob stat(String key) throws IOException;
+
+    // NoSuchFileException for missing blobs
+    InputStream open(String key) throws IOException;
+
+    // path is set when the blob is a local file that can be sent with
+    // sendfile; null otherwise
+    record Blob(String key, long size, long modified, Path path) {
+    }
+
+    static boolean isValidKey(String key) {
+        return key != null && KEY.matcher(key).matches();
+    }
+
+    // Lower-cased, and dropped unless it is a plain file extension
+    static String normalizeExtension(String extension) {
+        if (extension == null) {
+            return "";
+        }
+        String lower = extension.toLowerCase(Locale.ROOT);
+        return lower.matches("\\.[a-z0-9]{1,8}") ? lower : "";
+    }
+}
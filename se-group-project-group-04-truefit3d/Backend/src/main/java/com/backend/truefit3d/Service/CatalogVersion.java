@@ -0,0 +1,25 @@
+package com.backend.truefit3d.Service;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.stereotype.Component;
+
+// Monotonically increasing version of everything the wardrobe reads return
+// (garments, favorites, shares). Seeded from the clock so versions keep
+// increasing across restarts and stale ETags from a previous run never match.
+@Component
+public class CatalogVersion {
+    private final AtomicLong version = new AtomicLong(System.currentTimeMillis());
+
+    public long current() {
+        return version.get();
+    }
+
+    public long bump() {
+        return version.incrementAndGet();
+    }
+
+    public String etag(String resource) {
+        return "\"" + resource + "-" + version.get() + "\"";
+    }
+}
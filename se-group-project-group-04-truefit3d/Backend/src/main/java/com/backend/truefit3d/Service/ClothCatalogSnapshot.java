@@ -0,0 +1,338 @@
+package com.backend.truefit3d.Service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.roaringbitmap.PeekableIntIterator;
+import org.roaringbitmap.RoaringBitmap;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import com.backend.truefit3d.Model.ClothFilter;
+import com.backend.truefit3d.Model.ClothSummary;
+import com.backend.truefit3d.Repo.ClothCatalogRepo;
+
+// Read-optimized, column-oriented copy of the garment catalog. Rows are kept
+// in id order in primitive arrays with string attributes dictionary-encoded,
+// so browsing and filtering never touch the database.
+//
+// Writers append under a lock into spare array capacity and then publish a
+// new immutable Snapshot (count + array references) through a volatile field.
+// Readers only look at rows below their snapshot's count, so they never see a
+// half-written row and never block.
+@Component
+public class ClothCatalogSnapshot {
+    private static final int INITIAL_CAPACITY = 1024;
+    private static final int NO_MATCH = -2;
+
+    @Autowired
+    private ClothCatalogRepo clothCatalogRepo;
+
+    @Autowired
+    private PaletteStore paletteStore;
+
+    private final Object writeLock = new Object();
+    private Columns columns = new Columns(INITIAL_CAPACITY);
+    private volatile Snapshot snapshot = columns.publish();
+    private volatile boolean loaded;
+    // Ids added while a rebuild streams the catalog; null otherwise
+    private RoaringBitmap addedDuringRebuild;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        synchronized (writeLock) {
+            addedDuringRebuild = new RoaringBitmap();
+        }
+        Columns fresh = new Columns(INITIAL_CAPACITY);
+        clothCatalogRepo.streamAfter(null, 0, fresh::append);
+
+        synchronized (writeLock) {
+            // Carry over rows added while the rebuild was reading that it did
+            // not see. Ids are not committed in order, so these can sit
+            // anywhere in the id range, not only after the last loaded row.
+            Snapshot current = snapshot;
+            Snapshot loadedRows = fresh.publish();
+            columns = fresh;
+            snapshot = loadedRows;
+            for (int id : addedDuringRebuild) {
+                int index = Arrays.binarySearch(current.ids, 0, current.size, id);
+                if (index >= 0 && Arrays.binarySearch(loadedRows.ids, 0, loadedRows.size, id) < 0) {
+                    insert(current.get(index));
+                }
+            }
+            addedDuringRebuild = null;
+            loaded = true;
+        }
+    }
+
+    // False until the first rebuild; before that only uploads since startup
+    // are in the snapshot
+    public boolean isLoaded() {
+        return loaded;
+    }
+
+    public void add(ClothSummary item) {
+        synchronized (writeLock) {
+            if (addedDuringRebuild != null) {
+                addedDuringRebuild.add(Math.toIntExact(item.getId()));
+            }
+            insert(item);
+        }
+    }
+
+    // Caller must hold writeLock
+    private void insert(ClothSummary item) {
+        Snapshot current = snapshot;
+        if (current.size > 0 && item.getId() <= current.ids[current.size - 1]) {
+            // Concurrent saves can finish out of id order. Rows below the
+            // published count must never move, so copy into new columns.
+            Columns copy = new Columns(Math.max(INITIAL_CAPACITY, current.size * 2));
+            int insertAt = current.firstIndexAfter(item.getId());
+            for (int i = 0; i < current.size; i++) {
+                if (i == insertAt) {
+                    copy.append(item);
+                }
+                if (current.ids[i] != item.getId()) {
+                    copy.append(current.get(i));
+                }
+            }
+            columns = copy;
+        } else {
+            columns.append(item);
+        }
+        snapshot = columns.publish();
+    }
+
+    public int size() {
+        return snapshot.size;
+    }
+
+    public ClothSummary find(long id) {
+        Snapshot view = snapshot;
+        int index = Arrays.binarySearch(view.ids, 0, view.size, id);
+        return index < 0 ? null : view.get(index);
+    }
+
+    // Walks only the ids in visible (see ClothOwners), so a query costs the
+    // size of the viewer's wardrobes rather than of the whole catalog
+    public List<ClothSummary> query(ClothFilter filter, RoaringBitmap visible, long afterId, int limit) {
+        Snapshot view = snapshot;
+        int type = filter.getType() == null ? -1 : ClothCatalogRepo.TYPES.indexOf(filter.getType());
+        int color = view.color.lookup(filter.getColor());
+        int brand = view.brand.lookup(filter.getBrand());
+        int material = view.material.lookup(filter.getMaterial());
+        int sizeMetrics = view.sizeMetric.lookup(filter.getSizeMetrics());
+        double minSize = filter.getMinSize() == null ? Double.NEGATIVE_INFINITY : filter.getMinSize();
+        double maxSize = filter.getMaxSize() == null ? Double.POSITIVE_INFINITY : filter.getMaxSize();
+
+        List<ClothSummary> result = new ArrayList<>(Math.min(limit, 64));
+        if (color == NO_MATCH || brand == NO_MATCH || material == NO_MATCH || sizeMetrics == NO_MATCH) {
+            return result;
+        }
+
+        PeekableIntIterator it = visible.getIntIterator();
+        it.advanceIfNeeded((int) Math.max(0, Math.min(afterId + 1, Integer.MAX_VALUE)));
+        while (it.hasNext() && result.size() < limit) {
+            int i = Arrays.binarySearch(view.ids, 0, view.size, it.next());
+            if (i >= 0
+                    && (type < 0 || view.types[i] == type)
+                    && (color < 0 || view.colors[i] == color)
+                    && (brand < 0 || view.brands[i] == brand)
+                    && (material < 0 || view.materials[i] == material)
+                    && (sizeMetrics < 0 || view.sizeMetrics[i] == sizeMetrics)
+                    && view.sizes[i] >= minSize && view.sizes[i] <= maxSize
+                    && (filter.getPalette() == null || paletteStore.hasColor(view.ids[i], filter.getPalette()))) {
+                result.add(view.get(i));
+            }
+        }
+        return result;
+    }
+
+    // Append-only string dictionary. Codes are only ever added under the
+    // snapshot write lock; the lookup map is concurrent so readers can
+    // translate filter values without locking.
+    private static final class Dictionary {
+        private final Map<String, Integer> codes = new ConcurrentHashMap<>();
+        private String[] values = new String[16];
+        private int size;
+
+        int encode(String value) {
+            if (value == null) {
+                return -1;
+            }
+            Integer code = codes.get(value);
+            if (code != null) {
+                return code;
+            }
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size] = value;
+            codes.put(value, size);
+            return size++;
+        }
+    }
+
+    private static final class DictionaryView {
+        private final Dictionary dictionary;
+        private final String[] values;
+
+        DictionaryView(Dictionary dictionary) {
+            this.dictionary = dictionary;
+            this.values = dictionary.values;
+        }
+
+        // -1 means "no constraint", NO_MATCH means the value never occurs
+        int lookup(String value) {
+            if (value == null) {
+                return -1;
+            }
+            Integer code = dictionary.codes.get(value);
+            return code == null ? NO_MATCH : code;
+        }
+
+        String decode(int code) {
+            return code < 0 ? null : values[code];
+        }
+    }
+
+    private static final class Columns {
+        private long[] ids;
+        private double[] sizes;
+        private byte[] types;
+        private int[] colors;
+        private int[] brands;
+        private int[] materials;
+        private int[] sizeMetrics;
+        // neckType / fitType / skirtType depending on the garment type
+        private int[] details;
+        private int[] sleeveTypes;
+        private String[] imgUrls;
+        private int size;
+
+        private final Dictionary colorDictionary = new Dictionary();
+        private final Dictionary brandDictionary = new Dictionary();
+        private final Dictionary materialDictionary = new Dictionary();
+        private final Dictionary sizeMetricsDictionary = new Dictionary();
+        private final Dictionary detailDictionary = new Dictionary();
+
+        Columns(int capacity) {
+            ids = new long[capacity];
+            sizes = new double[capacity];
+            types = new byte[capacity];
+            colors = new int[capacity];
+            brands = new int[capacity];
+            materials = new int[capacity];
+            sizeMetrics = new int[capacity];
+            details = new int[capacity];
+            sleeveTypes = new int[capacity];
+            imgUrls = new String[capacity];
+        }
+
+        void append(ClothSummary item) {
+            int type = ClothCatalogRepo.TYPES.indexOf(item.getType());
+            if (type < 0) {
+                return;
+            }
+            if (size == ids.length) {
+                // Grow into fresh arrays; published snapshots keep the old ones
+                int capacity = size * 2;
+                ids = Arrays.copyOf(ids, capacity);
+                sizes = Arrays.copyOf(sizes, capacity);
+                types = Arrays.copyOf(types, capacity);
+                colors = Arrays.copyOf(colors, capacity);
+                brands = Arrays.copyOf(brands, capacity);
+                materials = Arrays.copyOf(materials, capacity);
+                sizeMetrics = Arrays.copyOf(sizeMetrics, capacity);
+                details = Arrays.copyOf(details, capacity);
+                sleeveTypes = Arrays.copyOf(sleeveTypes, capacity);
+                imgUrls = Arrays.copyOf(imgUrls, capacity);
+            }
+            String detail = item.getNeckType() != null ? item.getNeckType()
+                    : item.getFitType() != null ? item.getFitType() : item.getSkirtType();
+
+            ids[size] = item.getId();
+            sizes[size] = item.getSize();
+            types[size] = (byte) type;
+            colors[size] = colorDictionary.encode(item.getColor());
+            brands[size] = brandDictionary.encode(item.getBrand());
+            materials[size] = materialDictionary.encode(item.getMaterial());
+            sizeMetrics[size] = sizeMetricsDictionary.encode(item.getSizeMetrics());
+            details[size] = detailDictionary.encode(detail);
+            sleeveTypes[size] = detailDictionary.encode(item.getSleeveType());
+            imgUrls[size] = item.getImgUrl();
+            size++;
+        }
+
+        Snapshot publish() {
+            return new Snapshot(this);
+        }
+    }
+
+    private static final class Snapshot {
+        private final long[] ids;
+        private final double[] sizes;
+        private final byte[] types;
+        private final int[] colors;
+        private final int[] brands;
+        private final int[] materials;
+        private final int[] sizeMetrics;
+        private final int[] details;
+        private final int[] sleeveTypes;
+        private final String[] imgUrls;
+        private final int size;
+
+        private final DictionaryView color;
+        private final DictionaryView brand;
+        private final DictionaryView material;
+        private final DictionaryView sizeMetric;
+        private final DictionaryView detail;
+
+        Snapshot(Columns columns) {
+            this.ids = columns.ids;
+            this.sizes = columns.sizes;
+            this.types = columns.types;
+            this.colors = columns.colors;
+            this.brands = columns.brands;
+            this.materials = columns.materials;
+            this.sizeMetrics = columns.sizeMetrics;
+            this.details = columns.details;
+            this.sleeveTypes = columns.sleeveTypes;
+            this.imgUrls = columns.imgUrls;
+            this.size = columns.size;
+            this.color = new DictionaryView(columns.colorDictionary);
+            this.brand = new DictionaryView(columns.brandDictionary);
+            this.material = new DictionaryView(columns.materialDictionary);
+            this.sizeMetric = new DictionaryView(columns.sizeMetricsDictionary);
+            this.detail = new DictionaryView(columns.detailDictionary);
+        }
+
+        int firstIndexAfter(long afterId) {
+            int index = Arrays.binarySearch(ids, 0, size, afterId);
+            return index >= 0 ? index + 1 : -index - 1;
+        }
+
+        ClothSummary get(int i) {
+            String type = ClothCatalogRepo.TYPES.get(types[i]);
+            String detailValue = detail.decode(details[i]);
+            return new ClothSummary(
+                    ids[i],
+                    type,
+                    brand.decode(brands[i]),
+                    sizes[i],
+                    sizeMetric.decode(sizeMetrics[i]),
+                    color.decode(colors[i]),
+                    material.decode(materials[i]),
+                    imgUrls[i],
+                    type.equals("tshirt") ? detailValue : null,
+                    detail.decode(sleeveTypes[i]),
+                    type.equals("jeans") ? detailValue : null,
+                    type.equals("skirt") ? detailValue : null);
+        }
+    }
+}
@@ -0,0 +1,172 @@
+package com.backend.truefit3d.Service;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import org.roaringbitmap.FastAggregation;
+import org.roaringbitmap.PeekableIntIterator;
+import org.roaringbitmap.RoaringBitmap;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import com.backend.truefit3d.Model.ClothFilter;
+import com.backend.truefit3d.Model.ClothSummary;
+import com.backend.truefit3d.Repo.ClothCatalogRepo;
+
+// Faceted search over garment attributes. Each facet value owns a compressed
+// bitmap of cloth ids, and sizes are kept in a sorted map of bitmaps so a size
+// range is the union of a sub-map. Queries are bitmap intersections; facet
+// counts use andCardinality so no intermediate bitmaps are materialized.
+@Component
+public class ClothFacetIndex {
+    public static final List<String> FACETS = List.of("type", "color", "brand", "material", "sizeMetrics", "palette");
+    private static final int PALETTE = 5;
+
+    @Autowired
+    private ClothCatalogRepo clothCatalogRepo;
+
+    @Autowired
+    private PaletteStore paletteStore;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final RoaringBitmap all = new RoaringBitmap();
+    private final List<Map<String, RoaringBitmap>> facets = new ArrayList<>();
+    private final NavigableMap<Double, RoaringBitmap> sizes = new TreeMap<>();
+
+    public ClothFacetIndex() {
+        for (int i = 0; i < FACETS.size(); i++) {
+            facets.add(new HashMap<>());
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        // Adds are idempotent, so uploads racing with the initial load are safe
+        clothCatalogRepo.streamAfter(null, 0, this::add);
+        paletteStore.forEach(this::addPalette);
+    }
+
+    public void add(ClothSummary item) {
+        int id = Math.toIntExact(item.getId());
+        String[] values = facetValues(item);
+        lock.writeLock().lock();
+        try {
+            all.add(id);
+            for (int i = 0; i < values.length; i++) {
+                if (values[i] != null) {
+                    facets.get(i).computeIfAbsent(values[i], v -> new RoaringBitmap()).add(id);
+                }
+            }
+            sizes.computeIfAbsent(item.getSize(), s -> new RoaringBitmap()).add(id);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Files the garment under the names of its main photo colors
+    public void addPalette(int clothId, int[] palette) {
+        lock.writeLock().lock();
+        try {
+            for (String name : PaletteStore.names(palette)) {
+                facets.get(PALETTE).computeIfAbsent(name, v -> new RoaringBitmap()).add(clothId);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Matches and counts are limited to visible (see ClothOwners)
+    public Map<String, Object> search(ClothFilter filter, RoaringBitmap visible, long afterId, int limit) {
+        String[] selected = { filter.getType(), filter.getColor(), filter.getBrand(), filter.getMaterial(),
+                filter.getSizeMetrics(), filter.getPalette() };
+
+        lock.readLock().lock();
+        try {
+            RoaringBitmap[] constraints = new RoaringBitmap[selected.length + 2];
+            for (int i = 0; i < selected.length; i++) {
+                if (selected[i] != null) {
+                    constraints[i] = facets.get(i).getOrDefault(selected[i], new RoaringBitmap());
+                }
+            }
+            if (filter.getMinSize() != null || filter.getMaxSize() != null) {
+                constraints[selected.length] = sizeRange(filter.getMinSize(), filter.getMaxSize());
+            }
+            constraints[selected.length + 1] = visible;
+
+            RoaringBitmap matches = intersect(constraints, -1);
+
+            List<Long> ids = new ArrayList<>(Math.min(limit, 64));
+            PeekableIntIterator it = matches.getIntIterator();
+            if (afterId >= 0) {
+                it.advanceIfNeeded((int) Math.min(afterId + 1, Integer.MAX_VALUE));
+            }
+            while (it.hasNext() && ids.size() < limit) {
+                ids.add((long) it.next());
+            }
+
+            // Each facet is counted against the other facets' constraints, so
+            // picking a color still shows how many items exist in other colors
+            Map<String, Map<String, Integer>> counts = new LinkedHashMap<>();
+            for (int i = 0; i < FACETS.size(); i++) {
+                RoaringBitmap base = selected[i] == null ? matches : intersect(constraints, i);
+                Map<String, Integer> valueCounts = new LinkedHashMap<>();
+                for (Map.Entry<String, RoaringBitmap> entry : facets.get(i).entrySet()) {
+                    int count = RoaringBitmap.andCardinality(base, entry.getValue());
+                    if (count > 0) {
+                        valueCounts.put(entry.getKey(), count);
+                    }
+                }
+                counts.put(FACETS.get(i), valueCounts);
+            }
+
+            Map<String, Object> result = new LinkedHashMap<>();
+            result.put("total", matches.getLongCardinality());
+            result.put("ids", ids);
+            result.put("nextCursor", ids.size() == limit ? ids.get(ids.size() - 1) : null);
+            result.put("facets", counts);
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private RoaringBitmap sizeRange(Double min, Double max) {
+        if (min != null && max != null && min > max) {
+            return new RoaringBitmap();
+        }
+        NavigableMap<Double, RoaringBitmap> range = sizes;
+        if (min != null) {
+            range = range.tailMap(min, true);
+        }
+        if (max != null) {
+            range = range.headMap(max, true);
+        }
+        return FastAggregation.or(range.values().iterator());
+    }
+
+    private RoaringBitmap intersect(RoaringBitmap[] constraints, int skip) {
+        RoaringBitmap result = null;
+        for (int i = 0; i < constraints.length; i++) {
+            if (i == skip || constraints[i] == null) {
+                continue;
+            }
+            result = result == null ? constraints[i] : RoaringBitmap.and(result, constraints[i]);
+        }
+        return result == null ? all : result;
+    }
+
+    private static String[] facetValues(ClothSummary item) {
+        // The palette facet is filled in by addPalette once the photo is analyzed
+        return new String[] { item.getType(), item.getColor(), item.getBrand(), item.getMaterial(),
+                item.getSizeMetrics(), null };
+    }
+}
@@ -0,0 +1,76 @@
+package com.backend.truefit3d.Service;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import org.roaringbitmap.FastAggregation;
+import org.roaringbitmap.RoaringBitmap;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import com.backend.truefit3d.Repo.ClothCatalogRepo;
+
+import jakarta.annotation.PostConstruct;
+
+// Write-through, in-memory map from each owner to the bitmap of their cloth
+// ids. Catalog-wide indexes (snapshot, facets, similar items) hold every
+// user's garments; a viewer's reads are intersected with visibleTo so they
+// only ever return the viewer's own wardrobe and the ones shared with them.
+// Garments without an owner predate per-user wardrobes and are visible to
+// nobody.
+@Component
+public class ClothOwners {
+    @Autowired
+    private ClothCatalogRepo clothCatalogRepo;
+
+    @Autowired
+    private SharingGraph sharingGraph;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<String, RoaringBitmap> clothIdsByOwner = new HashMap<>();
+
+    // Loaded before the web server starts so reads are never scoped against
+    // an empty map
+    @PostConstruct
+    public void load() {
+        clothCatalogRepo.forEachOwner(this::add);
+    }
+
+    public void add(String ownerUsername, int clothId) {
+        lock.writeLock().lock();
+        try {
+            clothIdsByOwner.computeIfAbsent(ownerUsername, o -> new RoaringBitmap()).add(clothId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // The viewer plus every owner sharing a wardrobe with them
+    public List<String> ownersVisibleTo(String viewerUsername) {
+        List<String> owners = new ArrayList<>(sharingGraph.ownersOf(viewerUsername));
+        owners.add(viewerUsername);
+        return owners;
+    }
+
+    // Cloth ids of every wardrobe the viewer can see, as a new bitmap
+    public RoaringBitmap visibleTo(String viewerUsername) {
+        List<String> owners = ownersVisibleTo(viewerUsername);
+        lock.readLock().lock();
+        try {
+            List<RoaringBitmap> wardrobes = new ArrayList<>(owners.size());
+            for (String owner : owners) {
+                RoaringBitmap clothIds = clothIdsByOwner.get(owner);
+                if (clothIds != null) {
+                    wardrobes.add(clothIds);
+                }
+            }
+            return wardrobes.isEmpty() ? new RoaringBitmap() : FastAggregation.or(wardrobes.iterator());
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+}
@@ -0,0 +1,6 @@
+package com.backend.truefit3d.Service;
+
+// A garment id with a ranking score, as produced by the trending and
+// recommendation engines.
+public record ClothScore(int clothId, double score) {
+}
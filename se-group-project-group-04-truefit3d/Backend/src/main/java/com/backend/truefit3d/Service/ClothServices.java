@@ -1,30 +1,64 @@
 package com.backend.truefit3d.Service;
 
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.HashSet;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
-import java.util.stream.Collectors;
 
+import org.roaringbitmap.RoaringBitmap;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
 
+import com.backend.truefit3d.Model.CatalogChange;
 import com.backend.truefit3d.Model.ClothCombination;
-import com.backend.truefit3d.Model.FavoriteCloth;
-import com.backend.truefit3d.Model.Clothes.Cloth;
+import com.backend.truefit3d.Model.ClothFilter;
+import com.backend.truefit3d.Model.ClothSummary;
+import com.backend.truefit3d.Model.CombinationReaction;
+import com.backend.truefit3d.Model.ImageHash;
+import com.backend.truefit3d.Model.OutfitSuggestion;
 import com.backend.truefit3d.Model.Clothes.Jeans;
 import com.backend.truefit3d.Model.Clothes.Skirt;
 import com.backend.truefit3d.Model.Clothes.Tshirt;
 import com.backend.truefit3d.Model.SharedWardrobe;
+import com.backend.truefit3d.Model.SharedWardrobeItem;
+import com.backend.truefit3d.Model.SharedWardrobeView;
+import com.backend.truefit3d.Model.ScoredItem;
+import com.backend.truefit3d.Repo.CatalogChangeRepo;
+import com.backend.truefit3d.Repo.ClothCatalogRepo;
 import com.backend.truefit3d.Repo.ClothCombinationRepo;
-import com.backend.truefit3d.Repo.FavoriteClothRepo;
+import com.backend.truefit3d.Repo.CombinationReactionRepo;
 import com.backend.truefit3d.Repo.JeansRepo;
 import com.backend.truefit3d.Repo.SkirtRepo;
 import com.backend.truefit3d.Repo.TshirtRepo;
 import com.backend.truefit3d.Repo.SharedWardrobeRepo;
+import com.backend.truefit3d.Utills.ImageUrlSigner;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+import jakarta.annotation.PostConstruct;
 
 @Service
 public class ClothServices {
+    private static final int MAX_PAGE_SIZE = 500;
+    private static final int MAX_SYNC_CHANGES = 1000;
+    private static final int MAX_RECOMMENDATIONS = 100;
+    private static final int MAX_OUTFITS = 50;
+    private static final int MAX_SIMILAR = 50;
+    private static final int MAX_IMAGE_MATCHES = 50;
+
     @Autowired
     private TshirtRepo tshirtRepo;
 
@@ -34,16 +68,94 @@ public class ClothServices {
     @Autowired
     private SkirtRepo skirtRepo;
 
+    @Autowired
+    private SharedWardrobeRepo sharedWardrobeRepo;
+
+    @Autowired
+    private ClothCatalogRepo clothCatalogRepo;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private ClothCatalogSnapshot clothCatalogSnapshot;
+
+    @Autowired
+    private ClothFacetIndex clothFacetIndex;
+
+    @Autowired
+    private CatalogVersion catalogVersion;
+
+    @Autowired
+    private ImageUrlSigner imageUrlSigner;
+
+    @Autowired
+    private CatalogChangeRepo catalogChangeRepo;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    private SharingGraph sharingGraph;
+
+    @Autowired
+    private ClothOwners clothOwners;
+
+    @Autowired
+    private FavoriteWriteBuffer favoriteWriteBuffer;
+
+    @Autowired
+    private FavoriteStore favoriteStore;
+
+    @Autowired
+    private CombinationReactionRepo combinationReactionRepo;
+
+    @Autowired
+    private PopularityTracker popularityTracker;
+
+    @Autowired
+    private ItemRecommender itemRecommender;
+
+    @Autowired
+    private OutfitGenerator outfitGenerator;
+
     @Autowired
     private ClothCombinationRepo clothCombinationRepo;
 
     @Autowired
-    private FavoriteClothRepo favoriteClothRepo;
+    private SimilarItemsIndex similarItemsIndex;
 
     @Autowired
-    private SharedWardrobeRepo sharedWardrobeRepo;
+    private VisualSearchIndex visualSearchIndex;
+
+    @Autowired
+    private DuplicateImageIndex duplicateImageIndex;
+
+    @Autowired
+    private ImageAnalyzer imageAnalyzer;
+
+    @Autowired
+    private DataMigrations dataMigrations;
 
-    public void addTshirt(Map<String, String> data, String imgUrl) {
+    // Reactions rely on a unique (clothid, username) key, which databases from
+    // before it existed may lack because of duplicate votes. New databases get
+    // the key from the entity mapping.
+    @PostConstruct
+    public void prepareReactions() {
+        dataMigrations.runOnce("fav-cloth-vote-key", () -> {
+            combinationReactionRepo.deleteDuplicateVotes();
+            combinationReactionRepo.ensureVoteKey();
+            combinationReactionRepo.backfill();
+        });
+    }
+
+    // Runs before the catalog snapshot loads and before any upload
+    @PostConstruct
+    public void prepareMaterials() {
+        dataMigrations.runOnce("cloth-material", clothCatalogRepo::moveSubtypeMaterials);
+    }
+
+    public ClothSummary addTshirt(Map<String, String> data, String imgUrl, String ownerUsername) {
         Tshirt tshirt = new Tshirt();
         tshirt.setMaterial(data.getOrDefault("material", "Unknown"));
         tshirt.setNeckType(data.get("neckType"));
@@ -53,10 +165,14 @@ public class ClothServices {
         tshirt.setSize(Double.parseDouble(data.get("size")));
         tshirt.setSize_metrics(data.get("size_metrics"));
         tshirt.setColor(data.get("color"));
-        tshirtRepo.save(tshirt);
+        tshirt.setOwnerUsername(ownerUsername);
+        Tshirt saved = tshirtRepo.save(tshirt);
+        return indexCloth(new ClothSummary(saved.getId(), "tshirt", saved.getBrand(), saved.getSize(),
+            saved.getSize_metrics(), saved.getColor(), saved.getMaterial(), saved.getImgUrl(),
+            saved.getNeckType(), saved.getSleeveType(), null, null), ownerUsername);
     }
 
-    public void addJeans(Map<String, String> data, String imgUrl) {
+    public ClothSummary addJeans(Map<String, String> data, String imgUrl, String ownerUsername) {
         Jeans jeans = new Jeans();
         jeans.setMaterial(data.getOrDefault("material", "Unknown"));
         jeans.setFitType(data.get("fitType"));
@@ -65,10 +181,14 @@ public class ClothServices {
         jeans.setSize(Double.parseDouble(data.get("size")));
         jeans.setSize_metrics(data.get("size_metrics"));
         jeans.setColor(data.get("color"));
-        jeansRepo.save(jeans);
+        jeans.setOwnerUsername(ownerUsername);
+        Jeans saved = jeansRepo.save(jeans);
+        return indexCloth(new ClothSummary(saved.getId(), "jeans", saved.getBrand(), saved.getSize(),
+            saved.getSize_metrics(), saved.getColor(), saved.getMaterial(), saved.getImgUrl(),
+            null, null, saved.getFitType(), null), ownerUsername);
     }
 
-    public void addSkirt(Map<String, String> data, String imgUrl) {
+    public ClothSummary addSkirt(Map<String, String> data, String imgUrl, String ownerUsername) {
         Skirt skirt = new Skirt();
         skirt.setMaterial(data.getOrDefault("material", "Unknown"));
         skirt.setSkirtType(data.get("skirtType"));
@@ -77,58 +197,314 @@ public class ClothServices {
         skirt.setSize(Double.parseDouble(data.get("size")));
         skirt.setSize_metrics(data.get("size_metrics"));
         skirt.setColor(data.get("color"));
-        skirtRepo.save(skirt);
+        skirt.setOwnerUsername(ownerUsername);
+        Skirt saved = skirtRepo.save(skirt);
+        return indexCloth(new ClothSummary(saved.getId(), "skirt", saved.getBrand(), saved.getSize(),
+            saved.getSize_metrics(), saved.getColor(), saved.getMaterial(), saved.getImgUrl(),
+            null, null, null, saved.getSkirtType()), ownerUsername);
+    }
+
+    private ClothSummary indexCloth(ClothSummary item, String ownerUsername) {
+        clothOwners.add(ownerUsername, Math.toIntExact(item.getId()));
+        clothCatalogSnapshot.add(item);
+        clothFacetIndex.add(item);
+        similarItemsIndex.add(item);
+        recordChange(CatalogChange.KIND_CLOTH, item.getId().toString(), CatalogChange.OP_UPSERT, ownerUsername, null);
+        return item;
     }
 
+    // Image analysis runs in the background; the upload does not wait for it.
+    // imageHash is null for formats that could not be hashed.
+    public void indexImage(ClothSummary item, String ownerUsername, String imageKey, Long imageHash) {
+        if (imageHash != null) {
+            duplicateImageIndex.add(item.getId(), ownerUsername, imageHash, imageKey);
+        }
+        imageAnalyzer.submit(item, ownerUsername, imageKey);
+    }
+
+    public ImageHash findDuplicateImage(long imageHash, String ownerUsername) {
+        return duplicateImageIndex.find(imageHash, ownerUsername);
+    }
+
+    private void recordChange(String kind, String entityId, String op, String username, String peerUsername) {
+        catalogChangeRepo.append(new CatalogChange(kind, entityId, op, username, peerUsername));
+        changed(kind, username, peerUsername);
+    }
+
+    private void changed(String kind, String username, String peerUsername) {
+        catalogVersion.bump();
+
+        // Drop cached shared wardrobe views the change can affect. Evicting a
+        // key waits for a load of that key already in progress, so a view
+        // built from data read before the change cannot outlive it.
+        Cache cache = sharedWardrobeCache();
+        switch (kind) {
+            case CatalogChange.KIND_CLOTH:
+                for (String viewer : sharingGraph.viewersOf(username)) {
+                    cache.evict(new WardrobeKey(username, viewer));
+                }
+                break;
+            case CatalogChange.KIND_FAVORITE:
+                for (String owner : sharingGraph.ownersOf(username)) {
+                    cache.evict(new WardrobeKey(owner, username));
+                }
+                break;
+            case CatalogChange.KIND_SHARE:
+                cache.evict(new WardrobeKey(username, peerUsername));
+                break;
+            default:
+                break;
+        }
+    }
+
+    // One upsert per reaction; repeated clicks are no-ops at the database.
+    // Only generated outfit codes name garments, so only those are checked
+    // against the catalog and feed popularity and recommendations.
     public String LikeCloth(String code, String username) {
-        // This is for liking cloth combinations
-        ClothCombination ExistsclothCombination = clothCombinationRepo.findByClothidAndUsername(code, username);
-        if (ExistsclothCombination != null) {
-            if (ExistsclothCombination.getAccepted().equals(true)) {
-                return "Already liked";
-            } else {
-                ExistsclothCombination.setAccepted(true);
-                clothCombinationRepo.save(ExistsclothCombination);
-                return "Added to favorites";
-            }
+        int[] clothIds = ClothCombination.outfitClothIdsOf(code);
+        requireInCatalog(clothIds);
+        if (combinationReactionRepo.react(code, username, true) == 0) {
+            return "Already liked";
+        }
+        for (int clothId : clothIds) {
+            popularityTracker.record(clothId, PopularityTracker.LIKE);
+            itemRecommender.add(username, clothId);
         }
-        ClothCombination clothCombination = new ClothCombination();
-        clothCombination.setClothid(code);
-        clothCombination.setAccepted(true);
-        clothCombination.setUsername(username);
-        clothCombinationRepo.save(clothCombination);
         return "Added to favorites";
     }
 
     public String dislikeCloth(String code, String username) {
-        // This is for disliking cloth combinations
-        ClothCombination ExistsclothCombination = clothCombinationRepo.findByClothidAndUsername(code, username);
-        if (ExistsclothCombination != null) {
-            if (ExistsclothCombination.getAccepted().equals(false)) {
-                return "Already disliked";
-            } else {
-                ExistsclothCombination.setAccepted(false);
-                clothCombinationRepo.save(ExistsclothCombination);
-                return "Removed from favorites";
-            }
+        int[] clothIds = ClothCombination.outfitClothIdsOf(code);
+        requireInCatalog(clothIds);
+        if (combinationReactionRepo.react(code, username, false) == 0) {
+            return "Already disliked";
+        }
+        for (int clothId : clothIds) {
+            itemRecommender.reject(username, clothId);
         }
-        ClothCombination clothCombination = new ClothCombination();
-        clothCombination.setClothid(code);
-        clothCombination.setAccepted(false);
-        clothCombination.setUsername(username);
-        clothCombinationRepo.save(clothCombination);
         return "Removed from favorites";
     }
 
-    public Map<String, List<? extends Cloth>> getAllClothesByType() {
-        Map<String, List<? extends Cloth>> clothes = new LinkedHashMap<>();
-        clothes.put("tshirts", tshirtRepo.findAll());
-        clothes.put("skirts", skirtRepo.findAll());
-        clothes.put("jeans", jeansRepo.findAll());
+    public String tryOn(String clothId) {
+        int id = parseClothId(clothId);
+        requireInCatalog(id);
+        popularityTracker.record(id, PopularityTracker.TRY_ON);
+        return "Try-on recorded";
+    }
+
+    // Catalog-wide reads below return only garments from wardrobes the viewer
+    // can see (see ClothOwners)
+    public List<ScoredItem> getTrending(String viewerUsername, int size) {
+        int limit = Math.max(1, Math.min(size, PopularityTracker.TOP_K));
+        RoaringBitmap visible = clothOwners.visibleTo(viewerUsername);
+        List<ScoredItem> result = new ArrayList<>();
+        for (ClothScore score : popularityTracker.trending()) {
+            if (result.size() == limit) {
+                break;
+            }
+            ClothSummary item = visible.contains(score.clothId()) ? clothCatalogSnapshot.find(score.clothId()) : null;
+            if (item != null) {
+                result.add(new ScoredItem(item, score.score()));
+            }
+        }
+        return result;
+    }
+
+    public List<ScoredItem> getSimilarItems(String viewerUsername, String clothId, int size) {
+        int id = parseClothId(clothId);
+        RoaringBitmap visible = clothOwners.visibleTo(viewerUsername);
+        if (!visible.contains(id) || clothCatalogSnapshot.find(id) == null) {
+            throw new RuntimeException("Item not found");
+        }
+        int limit = Math.max(1, Math.min(size, MAX_SIMILAR));
+        List<ScoredItem> result = new ArrayList<>(limit);
+        for (ClothScore score : similarItemsIndex.similar(id, limit, visible::contains)) {
+            ClothSummary item = clothCatalogSnapshot.find(score.clothId());
+            if (item != null) {
+                result.add(new ScoredItem(item, score.score()));
+            }
+        }
+        return result;
+    }
+
+    // Searches the viewer's own wardrobe, or one shared with them
+    public List<ScoredItem> searchByImage(BufferedImage image, String viewerUsername, String ownerUsername, int size) {
+        String owner = ownerUsername == null ? viewerUsername : ownerUsername;
+        if (!owner.equals(viewerUsername) && !sharingGraph.isShared(owner, viewerUsername)) {
+            throw new RuntimeException("Wardrobe not shared");
+        }
+        int limit = Math.max(1, Math.min(size, MAX_IMAGE_MATCHES));
+        List<ScoredItem> result = new ArrayList<>(limit);
+        for (ClothScore score : visualSearchIndex.search(image, owner, limit)) {
+            ClothSummary item = clothCatalogSnapshot.find(score.clothId());
+            if (item != null) {
+                result.add(new ScoredItem(item, score.score()));
+            }
+        }
+        return result;
+    }
+
+    // Pairs every t-shirt in the user's wardrobe with their jeans and skirts
+    public List<OutfitSuggestion> generateOutfits(String username, int size) {
+        int limit = Math.max(1, Math.min(size, MAX_OUTFITS));
+        Map<String, List<ClothSummary>> wardrobe = getAllClothesByType(username);
+        List<ClothSummary> bottoms = new ArrayList<>(wardrobe.get("jeans"));
+        bottoms.addAll(wardrobe.get("skirts"));
+
+        Set<Long> rejectedPairs = new HashSet<>();
+        for (ClothCombination reaction : clothCombinationRepo.findByUsernameAndAccepted(username, false)) {
+            int[] clothIds = ClothCombination.outfitClothIdsOf(reaction.getClothid());
+            if (clothIds.length == 2) {
+                rejectedPairs.add(OutfitGenerator.pack(clothIds[0], clothIds[1]));
+            }
+        }
+        return outfitGenerator.generate(username, wardrobe.get("tshirts"), bottoms, rejectedPairs, limit);
+    }
+
+    // Falls back to trending garments the user has not seen for users
+    // without any favorites or likes yet
+    public List<ScoredItem> getRecommendations(String username, int size) {
+        int limit = Math.max(1, Math.min(size, MAX_RECOMMENDATIONS));
+        RoaringBitmap visible = clothOwners.visibleTo(username);
+        List<ClothScore> scores = itemRecommender.recommend(username, limit,
+            clothId -> visible.contains(clothId) && clothCatalogSnapshot.find(clothId) != null);
+        if (scores.isEmpty()) {
+            RoaringBitmap seen = itemRecommender.seen(username);
+            scores = new ArrayList<>();
+            for (ClothScore score : popularityTracker.trending()) {
+                if (visible.contains(score.clothId()) && !seen.contains(score.clothId())) {
+                    scores.add(score);
+                }
+            }
+        }
+
+        List<ScoredItem> result = new ArrayList<>(Math.min(limit, scores.size()));
+        for (ClothScore score : scores) {
+            if (result.size() == limit) {
+                break;
+            }
+            ClothSummary item = clothCatalogSnapshot.find(score.clothId());
+            if (item != null) {
+                result.add(new ScoredItem(item, score.score()));
+            }
+        }
+        return result;
+    }
+
+    public CombinationReaction getCombinationReactions(String code) {
+        return combinationReactionRepo.findById(code).orElseGet(() -> new CombinationReaction(code, 0, 0));
+    }
+
+    public Map<String, List<ClothSummary>> getAllClothesByType(String ownerUsername) {
+        Map<String, List<ClothSummary>> clothes = new LinkedHashMap<>();
+        clothes.put("tshirts", tshirtRepo.findSummariesByOwner(ownerUsername));
+        clothes.put("skirts", skirtRepo.findSummariesByOwner(ownerUsername));
+        clothes.put("jeans", jeansRepo.findSummariesByOwner(ownerUsername));
         return clothes;
     }
 
+    // Responses carry signed photo URLs, so they also change with the signing
+    // window. They are per user, so the users they were built for are part of
+    // the tag and one account never revalidates against another's body.
+    public String getCatalogETag(String resource, String... usernames) {
+        StringBuilder tag = new StringBuilder(resource);
+        for (String username : usernames) {
+            tag.append('.').append(Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(username.getBytes(StandardCharsets.UTF_8)));
+        }
+        return catalogVersion.etag(tag + "-" + imageUrlSigner.window());
+    }
+
+    public Map<String, Object> getChangesSince(String username, long since) {
+        List<CatalogChange> rows = catalogChangeRepo.findVisibleSince(since, username, Limit.of(MAX_SYNC_CHANGES + 1));
+        boolean hasMore = rows.size() > MAX_SYNC_CHANGES;
+        if (hasMore) {
+            rows = rows.subList(0, MAX_SYNC_CHANGES);
+        }
+
+        // Only the latest change per entity matters to the client
+        Map<String, CatalogChange> latest = new LinkedHashMap<>();
+        for (CatalogChange row : rows) {
+            String key = row.getKind() + ":" + row.getEntityId();
+            latest.remove(key);
+            latest.put(key, row);
+        }
+
+        List<Map<String, Object>> changes = new ArrayList<>(latest.size());
+        for (CatalogChange row : latest.values()) {
+            Map<String, Object> change = new LinkedHashMap<>();
+            change.put("kind", row.getKind());
+            change.put("id", row.getEntityId());
+            change.put("op", row.getOp());
+            if (CatalogChange.KIND_SHARE.equals(row.getKind())) {
+                change.put("owner", row.getUsername());
+                change.put("viewer", row.getPeerUsername());
+            } else if (CatalogChange.KIND_CLOTH.equals(row.getKind())) {
+                change.put("item", clothCatalogSnapshot.find(Long.parseLong(row.getEntityId())));
+            }
+            changes.add(change);
+        }
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("version", rows.isEmpty() ? since : rows.get(rows.size() - 1).getId());
+        result.put("hasMore", hasMore);
+        result.put("changes", changes);
+        return result;
+    }
+
+    public Map<String, Object> getCatalogPage(String viewerUsername, String type, long afterId, int size) {
+        int limit = Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+        List<ClothSummary> items = clothCatalogRepo.findPageAfter(type, clothOwners.ownersVisibleTo(viewerUsername),
+            afterId, limit);
+
+        Map<String, Object> page = new LinkedHashMap<>();
+        page.put("items", items);
+        // A short page means the end of the catalog was reached
+        page.put("nextCursor", items.size() == limit ? items.get(items.size() - 1).getId() : null);
+        return page;
+    }
+
+    public Map<String, Object> browseCatalog(String viewerUsername, ClothFilter filter, long afterId, int size) {
+        int limit = Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+        List<ClothSummary> items = clothCatalogSnapshot.query(filter, clothOwners.visibleTo(viewerUsername),
+            afterId, limit);
+
+        Map<String, Object> page = new LinkedHashMap<>();
+        page.put("items", items);
+        page.put("nextCursor", items.size() == limit ? items.get(items.size() - 1).getId() : null);
+        return page;
+    }
+
+    public Map<String, Object> searchFacets(String viewerUsername, ClothFilter filter, long afterId, int size) {
+        int limit = Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+        return clothFacetIndex.search(filter, clothOwners.visibleTo(viewerUsername), afterId, limit);
+    }
+
+    public void streamCatalog(String viewerUsername, String type, long afterId, OutputStream out) throws IOException {
+        // Writes one JSON object per line as rows come off the cursor, so
+        // memory use does not depend on the size of the catalog
+        ObjectWriter writer = objectMapper.writerFor(ClothSummary.class)
+            .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(out)) {
+            generator.setRootValueSeparator(null);
+            clothCatalogRepo.streamAfter(type, clothOwners.ownersVisibleTo(viewerUsername), afterId, item -> {
+                try {
+                    writer.writeValue(generator, item);
+                    generator.writeRaw('\n');
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
     public String shareWardrobe(String ownerUsername, String sharedWithUsername) {
+        if (sharingGraph.isShared(ownerUsername, sharedWithUsername)) {
+            return "Already shared";
+        }
+
         // Check if sharing already exists
         SharedWardrobe existingShare = sharedWardrobeRepo.findByOwnerUsernameAndSharedWithUsername(ownerUsername, sharedWithUsername);
         if (existingShare != null) {
@@ -137,6 +513,8 @@ public class ClothServices {
             }
             existingShare.setIsActive(true);
             sharedWardrobeRepo.save(existingShare);
+            sharingGraph.share(ownerUsername, sharedWithUsername);
+            recordShareChange(existingShare, CatalogChange.OP_UPSERT);
             return "Sharing reactivated";
         }
 
@@ -146,19 +524,32 @@ public class ClothServices {
         share.setSharedWithUsername(sharedWithUsername);
         share.setIsActive(true);
         sharedWardrobeRepo.save(share);
+        sharingGraph.share(ownerUsername, sharedWithUsername);
+        recordShareChange(share, CatalogChange.OP_UPSERT);
         return "Shared successfully";
     }
 
     public String unshareWardrobe(String ownerUsername, String sharedWithUsername) {
+        if (!sharingGraph.isShared(ownerUsername, sharedWithUsername)) {
+            return "Not currently shared";
+        }
+
         SharedWardrobe share = sharedWardrobeRepo.findByOwnerUsernameAndSharedWithUsername(ownerUsername, sharedWithUsername);
         if (share != null && share.getIsActive()) {
             share.setIsActive(false);
             sharedWardrobeRepo.save(share);
+            sharingGraph.unshare(ownerUsername, sharedWithUsername);
+            recordShareChange(share, CatalogChange.OP_DELETE);
             return "Unshared successfully";
         }
         return "Not currently shared";
     }
 
+    private void recordShareChange(SharedWardrobe share, String op) {
+        recordChange(CatalogChange.KIND_SHARE, share.getId().toString(), op,
+            share.getOwnerUsername(), share.getSharedWithUsername());
+    }
+
     public List<SharedWardrobe> getSharedWardrobes(String username) {
         return sharedWardrobeRepo.findBySharedWithUsername(username);
     }
@@ -167,87 +558,115 @@ public class ClothServices {
         return sharedWardrobeRepo.findByOwnerUsername(username);
     }
 
-    public Map<String, Object> getSharedWardrobeItems(String ownerUsername, String sharedWithUsername) {
-        SharedWardrobe share = sharedWardrobeRepo.findByOwnerUsernameAndSharedWithUsername(ownerUsername, sharedWithUsername);
-        if (share == null || !share.getIsActive()) {
+    public boolean isWardrobeShared(String ownerUsername, String sharedWithUsername) {
+        return sharingGraph.isShared(ownerUsername, sharedWithUsername);
+    }
+
+    public SharedWardrobeView getSharedWardrobeItems(String ownerUsername, String sharedWithUsername) {
+        if (!sharingGraph.isShared(ownerUsername, sharedWithUsername)) {
             throw new RuntimeException("Wardrobe not shared");
         }
 
-        Map<String, Object> result = new LinkedHashMap<>();
-        Map<String, List<? extends Cloth>> clothes = getAllClothesByType();
-        
-        // Get favorite items for the shared user
-        List<FavoriteCloth> favoriteItems = favoriteClothRepo.findByUsernameAndIsFavorite(sharedWithUsername, true);
-        Set<String> favoriteItemIds = favoriteItems.stream()
-            .map(FavoriteCloth::getClothId)
-            .collect(Collectors.toSet());
-
-        // Add clothes with favorite status
-        result.put("tshirts", clothes.get("tshirts").stream()
-            .map(item -> {
-                Map<String, Object> itemMap = new LinkedHashMap<>();
-                itemMap.put("item", item);
-                itemMap.put("isFavorite", favoriteItemIds.contains(item.getId().toString()));
-                return itemMap;
-            })
-            .collect(Collectors.toList()));
-        
-        result.put("jeans", clothes.get("jeans").stream()
-            .map(item -> {
-                Map<String, Object> itemMap = new LinkedHashMap<>();
-                itemMap.put("item", item);
-                itemMap.put("isFavorite", favoriteItemIds.contains(item.getId().toString()));
-                return itemMap;
-            })
-            .collect(Collectors.toList()));
-        
-        result.put("skirts", clothes.get("skirts").stream()
-            .map(item -> {
-                Map<String, Object> itemMap = new LinkedHashMap<>();
-                itemMap.put("item", item);
-                itemMap.put("isFavorite", favoriteItemIds.contains(item.getId().toString()));
-                return itemMap;
-            })
-            .collect(Collectors.toList()));
+        // Loaded atomically, so an eviction cannot slip in between reading the
+        // wardrobe and caching the view
+        return sharedWardrobeCache().get(new WardrobeKey(ownerUsername, sharedWithUsername), () -> {
+            Map<String, List<ClothSummary>> clothes = getAllClothesByType(ownerUsername);
+            RoaringBitmap favoriteIds = favoriteClothIds(sharedWithUsername);
+            return new SharedWardrobeView(
+                withFavorites(clothes.get("tshirts"), favoriteIds),
+                withFavorites(clothes.get("jeans"), favoriteIds),
+                withFavorites(clothes.get("skirts"), favoriteIds));
+        });
+    }
+
+    // The user's own toggles that have not been flushed yet win. Pending
+    // toggles are read first: once one leaves the buffer it is in the store.
+    private RoaringBitmap favoriteClothIds(String username) {
+        Map<Integer, Boolean> pending = favoriteWriteBuffer.pendingFor(username);
+        RoaringBitmap stored = favoriteStore.get(username);
+        if (pending.isEmpty()) {
+            return stored;
+        }
+        RoaringBitmap favorites = stored.clone();
+        pending.forEach((clothId, favorite) -> {
+            if (favorite) {
+                favorites.add(clothId);
+            } else {
+                favorites.remove(clothId);
+            }
+        });
+        return favorites;
+    }
+
+    public boolean isFavorite(String username, String clothId) {
+        return favoriteClothIds(username).contains(parseClothId(clothId));
+    }
+
+    public int[] getFavoriteClothIds(String username) {
+        return favoriteClothIds(username).toArray();
+    }
 
+    private static List<SharedWardrobeItem> withFavorites(List<ClothSummary> items, RoaringBitmap favoriteIds) {
+        List<SharedWardrobeItem> result = new ArrayList<>(items.size());
+        for (ClothSummary item : items) {
+            result.add(new SharedWardrobeItem(item, favoriteIds.contains(Math.toIntExact(item.getId()))));
+        }
         return result;
     }
 
-    public String favoriteCloth(String clothId, String username) {
-        // This is for favoriting individual clothes
-        System.out.println("Attempting to favorite cloth with ID: " + clothId + " for user: " + username);
-        FavoriteCloth existingFavorite = favoriteClothRepo.findByClothIdAndUsername(clothId, username);
-        if (existingFavorite != null) {
-            if (existingFavorite.getIsFavorite()) {
-                System.out.println("Cloth already favorited");
-                return "Already favorited";
+    private static int parseClothId(String clothId) {
+        try {
+            int id = Integer.parseInt(clothId);
+            if (id >= 0) {
+                return id;
             }
-            existingFavorite.setIsFavorite(true);
-            favoriteClothRepo.save(existingFavorite);
-            System.out.println("Updated existing favorite to true");
-            return "Added to favorites";
-        }
-
-        FavoriteCloth newFavorite = new FavoriteCloth();
-        newFavorite.setClothId(clothId);
-        newFavorite.setUsername(username);
-        newFavorite.setIsFavorite(true);
-        favoriteClothRepo.save(newFavorite);
-        System.out.println("Created new favorite entry");
+        } catch (NumberFormatException e) {
+            // Reported below
+        }
+        throw new RuntimeException("Invalid cloth ID");
+    }
+
+    private Cache sharedWardrobeCache() {
+        return cacheManager.getCache("sharedWardrobeCache");
+    }
+
+    private record WardrobeKey(String owner, String viewer) {
+    }
+
+    // Favorite toggles are acknowledged straight away and persisted by the
+    // write-behind buffer, which also writes their change log rows
+    public String favoriteCloth(String clothId, String username) {
+        int id = parseClothId(clothId);
+        requireInCatalog(id);
+        // Re-clicking an existing favorite must not count again towards trending
+        boolean wasFavorite = favoriteClothIds(username).contains(id);
+        favoriteWriteBuffer.toggle(username, id, true);
+        if (!wasFavorite) {
+            popularityTracker.record(id, PopularityTracker.FAVORITE);
+        }
+        itemRecommender.add(username, id);
+        changed(CatalogChange.KIND_FAVORITE, username, null);
         return "Added to favorites";
     }
 
-    public String unfavoriteCloth(String code, String username) {
-        // This is for unfavoriting individual clothes
-        FavoriteCloth existingFavorite = favoriteClothRepo.findByClothIdAndUsername(code, username);
-        if (existingFavorite != null) {
-            if (!existingFavorite.getIsFavorite()) {
-                return "Already unfavorited";
+    public String unfavoriteCloth(String clothId, String username) {
+        int id = parseClothId(clothId);
+        favoriteWriteBuffer.toggle(username, id, false);
+        itemRecommender.remove(username, id);
+        changed(CatalogChange.KIND_FAVORITE, username, null);
+        return "Removed from favorites";
+    }
+
+    // Cloth ids from clients index in-memory arrays, so only real garments
+    // get through. Until the snapshot has loaded, the database is asked.
+    private void requireInCatalog(int... clothIds) {
+        for (int clothId : clothIds) {
+            boolean exists = clothCatalogSnapshot.isLoaded()
+                ? clothCatalogSnapshot.find(clothId) != null
+                : clothCatalogRepo.exists(clothId);
+            if (!exists) {
+                throw new RuntimeException("Item not found");
             }
-            existingFavorite.setIsFavorite(false);
-            favoriteClothRepo.save(existingFavorite);
-            return "Removed from favorites";
         }
-        return "Item not found";
     }
 }
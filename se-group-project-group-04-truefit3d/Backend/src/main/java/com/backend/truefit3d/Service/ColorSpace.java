@@ -0,0 +1,116 @@
+package com.backend.truefit3d.Service;
+
+import java.util.Locale;
+import java.util.Map;
+
+// Garment colors as points in CIELAB, where Euclidean distance roughly
+// follows perceived difference. Colors typed by users are matched word by
+// word against a table of common color names ("light blue" -> blue).
+public final class ColorSpace {
+    private static final Map<String, Integer> NAMES = Map.ofEntries(
+            Map.entry("black", 0x000000), Map.entry("white", 0xFFFFFF), Map.entry("grey", 0x808080),
+            Map.entry("gray", 0x808080), Map.entry("silver", 0xC0C0C0), Map.entry("charcoal", 0x36454F),
+            Map.entry("red", 0xD01C1F), Map.entry("maroon", 0x800000), Map.entry("burgundy", 0x800020),
+            Map.entry("pink", 0xFFC0CB), Map.entry("magenta", 0xFF00FF), Map.entry("orange", 0xFF8C00),
+            Map.entry("yellow", 0xFFD700), Map.entry("mustard", 0xE1AD01), Map.entry("beige", 0xF5F5DC),
+            Map.entry("cream", 0xFFFDD0), Map.entry("khaki", 0xC3B091), Map.entry("brown", 0x8B4513),
+            Map.entry("olive", 0x808000), Map.entry("green", 0x228B22), Map.entry("teal", 0x008080),
+            Map.entry("turquoise", 0x40E0D0), Map.entry("cyan", 0x00FFFF), Map.entry("blue", 0x1E50C8),
+            Map.entry("navy", 0x000080), Map.entry("denim", 0x1560BD), Map.entry("purple", 0x800080),
+            Map.entry("violet", 0x8F00FF), Map.entry("lavender", 0xE6E6FA));
+
+    // Names with their Lab coordinates for nearest-name lookups; "gray" is
+    // left out so every color has a single name
+    private static final String[] NAMED = NAMES.keySet().stream().filter(n -> !n.equals("gray")).sorted()
+            .toArray(String[]::new);
+    private static final float[][] NAMED_LAB = new float[NAMED.length][];
+
+    static {
+        for (int i = 0; i < NAMED.length; i++) {
+            NAMED_LAB[i] = lab(NAMES.get(NAMED[i]));
+        }
+    }
+
+    private ColorSpace() {
+    }
+
+    // Packed 0xRRGGBB of the first known color word, or -1
+    public static int rgb(String color) {
+        if (color == null) {
+            return -1;
+        }
+        for (String word : color.toLowerCase(Locale.ROOT).split("[^a-z]+")) {
+            Integer rgb = NAMES.get(word);
+            if (rgb != null) {
+                return rgb;
+            }
+        }
+        return -1;
+    }
+
+    // The known color name perceptually closest to a packed 0xRRGGBB color
+    public static String name(int rgb) {
+        float[] lab = lab(rgb);
+        String best = null;
+        float bestDistance = Float.MAX_VALUE;
+        for (int i = 0; i < NAMED.length; i++) {
+            float distance = distance(lab, NAMED_LAB[i]);
+            if (distance < bestDistance) {
+                bestDistance = distance;
+                best = NAMED[i];
+            }
+        }
+        return best;
+    }
+
+    // Squared CIE76 color difference
+    public static float distance(float[] lab1, float[] lab2) {
+        float dl = lab1[0] - lab2[0];
+        float da = lab1[1] - lab2[1];
+        float db = lab1[2] - lab2[2];
+        return dl * dl + da * da + db * db;
+    }
+
+    // Packed 0xRRGGBB of { L, a, b }, clamped to the sRGB gamut
+    public static int rgb(float[] lab) {
+        double y = (lab[0] + 16) / 116.0;
+        double x = y + lab[1] / 500.0;
+        double z = y - lab[2] / 200.0;
+        x = 0.95047 * inverse(x);
+        y = inverse(y);
+        z = 1.08883 * inverse(z);
+        int r = gamma(3.2406 * x - 1.5372 * y - 0.4986 * z);
+        int g = gamma(-0.9689 * x + 1.8758 * y + 0.0415 * z);
+        int b = gamma(0.0557 * x - 0.2040 * y + 1.0570 * z);
+        return (r << 16) | (g << 8) | b;
+    }
+
+    // { L, a, b } of a packed sRGB color (D65 white point)
+    public static float[] lab(int rgb) {
+        double r = linear((rgb >> 16) & 0xFF);
+        double g = linear((rgb >> 8) & 0xFF);
+        double b = linear(rgb & 0xFF);
+        double x = f((0.4124 * r + 0.3576 * g + 0.1805 * b) / 0.95047);
+        double y = f(0.2126 * r + 0.7152 * g + 0.0722 * b);
+        double z = f((0.0193 * r + 0.1192 * g + 0.9505 * b) / 1.08883);
+        return new float[] { (float) (116 * y - 16), (float) (500 * (x - y)), (float) (200 * (y - z)) };
+    }
+
+    private static double linear(int channel) {
+        double c = channel / 255.0;
+        return c <= 0.04045 ? c / 12.92 : Math.pow((c + 0.055) / 1.055, 2.4);
+    }
+
+    private static double inverse(double t) {
+        return t > 6.0 / 29 ? t * t * t : (116 * t - 16) * 27 / 24389.0;
+    }
+
+    private static int gamma(double c) {
+        double v = c <= 0.0031308 ? 12.92 * c : 1.055 * Math.pow(c, 1 / 2.4) - 0.055;
+        return (int) Math.round(Math.max(0, Math.min(1, v)) * 255);
+    }
+
+    private static double f(double t) {
+        return t > 216.0 / 24389 ? Math.cbrt(t) : (24389.0 / 27 * t + 16) / 116;
+    }
+}
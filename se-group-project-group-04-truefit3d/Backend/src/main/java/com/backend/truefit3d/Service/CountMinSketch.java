@@ -0,0 +1,59 @@
+package com.backend.truefit3d.Service;
+
+// Count-min sketch over int keys with double counts and conservative update:
+// an add only raises the cells that are below the new estimate, which keeps
+// over-counting from hash collisions low. Not thread-safe; PopularityTracker
+// only touches it from its flush thread.
+public final class CountMinSketch {
+    private final int width;
+    private final double[][] cells;
+    private final int[] seeds;
+
+    public CountMinSketch(int depth, int width) {
+        this.width = width;
+        this.cells = new double[depth][width];
+        this.seeds = new int[depth];
+        for (int row = 0; row < depth; row++) {
+            seeds[row] = 0x9E3779B9 * (row + 1);
+        }
+    }
+
+    // Adds count to key and returns the key's new estimate
+    public double add(int key, double count) {
+        double estimate = estimate(key) + count;
+        for (int row = 0; row < cells.length; row++) {
+            int cell = cell(row, key);
+            if (cells[row][cell] < estimate) {
+                cells[row][cell] = estimate;
+            }
+        }
+        return estimate;
+    }
+
+    public double estimate(int key) {
+        double min = Double.MAX_VALUE;
+        for (int row = 0; row < cells.length; row++) {
+            min = Math.min(min, cells[row][cell(row, key)]);
+        }
+        return min;
+    }
+
+    public void scale(double factor) {
+        for (double[] row : cells) {
+            for (int i = 0; i < row.length; i++) {
+                row[i] *= factor;
+            }
+        }
+    }
+
+    private int cell(int row, int key) {
+        // murmur3 finalizer
+        int h = key ^ seeds[row];
+        h ^= h >>> 16;
+        h *= 0x85EBCA6B;
+        h ^= h >>> 13;
+        h *= 0xC2B2AE35;
+        h ^= h >>> 16;
+        return (h & Integer.MAX_VALUE) % width;
+    }
+}
@@ -0,0 +1,42 @@
+package com.backend.truefit3d.Service;
+
+import javax.sql.DataSource;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import jakarta.annotation.PostConstruct;
+
+// One-time data migrations for databases created by older versions. A step
+// runs at most once per database: its name is recorded in data_migrations
+// in the same transaction as the step itself, so a step that fails is tried
+// again on the next start, and of two instances starting together only one
+// runs it.
+@Component
+public class DataMigrations {
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+
+    public DataMigrations(DataSource dataSource, PlatformTransactionManager transactionManager) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    @PostConstruct
+    public void createTable() {
+        jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS data_migrations"
+                + " (name VARCHAR(100) PRIMARY KEY, applied_at TIMESTAMP NOT NULL)");
+    }
+
+    public void runOnce(String name, Runnable step) {
+        transactionTemplate.executeWithoutResult(status -> {
+            int claimed = jdbcTemplate.update("INSERT INTO data_migrations (name, applied_at) VALUES (?, now())"
+                    + " ON CONFLICT (name) DO NOTHING", name);
+            if (claimed == 1) {
+                step.run();
+            }
+        });
+    }
+}
@@ -0,0 +1,195 @@
+package com.backend.truefit3d.Service;
+
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.util.Arrays;
+import java.util.Random;
+
+// Dominant colors of a garment photo by weighted k-means in CIELAB over a
+// SIDE x SIDE downsample. Pixels are weighted towards the center, and when
+// the photo's border is a uniform backdrop, the cluster matching it is
+// dropped so a white studio background is not reported as the garment's
+// color.
+//
+// A palette is packed ints, most dominant first: 0xSSRRGGBB, where SS is the
+// color's share of the (weighted) photo in 1/255ths.
+public final class DominantColors {
+    private static final int SIDE = 64;
+    private static final int CLUSTERS = 5;
+    private static final int ITERATIONS = 12;
+    // Colors covering less of the photo than this are left out
+    private static final float MIN_SHARE = 0.05f;
+    // Squared Lab distances: border pixels this close to their mean make a
+    // uniform backdrop, and clusters this close to it are the backdrop
+    private static final float BACKDROP_SPREAD = 100f;
+    private static final float BACKDROP_DISTANCE = 150f;
+
+    private DominantColors() {
+    }
+
+    public static int[] of(BufferedImage image) {
+        BufferedImage small = new BufferedImage(SIDE, SIDE, BufferedImage.TYPE_INT_RGB);
+        Graphics2D graphics = small.createGraphics();
+        graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+        graphics.drawImage(image, 0, 0, SIDE, SIDE, null);
+        graphics.dispose();
+        int[] pixels = small.getRGB(0, 0, SIDE, SIDE, null, 0, SIDE);
+
+        int n = pixels.length;
+        float[][] labs = new float[n][];
+        float[] weights = new float[n];
+        for (int i = 0; i < n; i++) {
+            labs[i] = ColorSpace.lab(pixels[i] & 0xFFFFFF);
+            float dx = (i % SIDE + 0.5f) / SIDE * 2 - 1;
+            float dy = (i / SIDE + 0.5f) / SIDE * 2 - 1;
+            weights[i] = Math.max(0.1f, 1 - (dx * dx + dy * dy) / 2);
+        }
+
+        float[][] centers = seed(labs, weights);
+        int[] assignment = new int[n];
+        float[] mass = new float[centers.length];
+        for (int iteration = 0; iteration < ITERATIONS; iteration++) {
+            boolean moved = false;
+            for (int i = 0; i < n; i++) {
+                int nearest = nearest(centers, labs[i]);
+                if (nearest != assignment[i]) {
+                    assignment[i] = nearest;
+                    moved = true;
+                }
+            }
+            float[][] sums = new float[centers.length][3];
+            Arrays.fill(mass, 0f);
+            for (int i = 0; i < n; i++) {
+                float[] sum = sums[assignment[i]];
+                sum[0] += weights[i] * labs[i][0];
+                sum[1] += weights[i] * labs[i][1];
+                sum[2] += weights[i] * labs[i][2];
+                mass[assignment[i]] += weights[i];
+            }
+            for (int c = 0; c < centers.length; c++) {
+                if (mass[c] > 0) {
+                    centers[c] = new float[] { sums[c][0] / mass[c], sums[c][1] / mass[c], sums[c][2] / mass[c] };
+                }
+            }
+            if (!moved && iteration > 0) {
+                break;
+            }
+        }
+
+        // Drop the backdrop unless it is all there is (a white shirt on white)
+        float[] backdrop = backdrop(labs);
+        if (backdrop != null) {
+            float[] garment = mass.clone();
+            for (int c = 0; c < centers.length; c++) {
+                if (ColorSpace.distance(centers[c], backdrop) < BACKDROP_DISTANCE) {
+                    garment[c] = 0;
+                }
+            }
+            if (sum(garment) > 0) {
+                System.arraycopy(garment, 0, mass, 0, mass.length);
+            }
+        }
+        float total = sum(mass);
+
+        Integer[] order = new Integer[centers.length];
+        for (int c = 0; c < order.length; c++) {
+            order[c] = c;
+        }
+        Arrays.sort(order, (a, b) -> Float.compare(mass[b], mass[a]));
+        int[] palette = new int[centers.length];
+        int size = 0;
+        for (int c : order) {
+            float share = mass[c] / total;
+            if (share >= MIN_SHARE) {
+                palette[size++] = (Math.round(share * 255) << 24) | ColorSpace.rgb(centers[c]);
+            }
+        }
+        return Arrays.copyOf(palette, size);
+    }
+
+    public static int rgb(int color) {
+        return color & 0xFFFFFF;
+    }
+
+    public static float share(int color) {
+        return (color >>> 24) / 255f;
+    }
+
+    // k-means++ seeding, deterministic so a photo always gets the same palette
+    private static float[][] seed(float[][] labs, float[] weights) {
+        Random random = new Random(0);
+        float[][] centers = new float[CLUSTERS][];
+        centers[0] = labs[labs.length / 2 + SIDE / 2];
+        float[] distances = new float[labs.length];
+        Arrays.fill(distances, Float.MAX_VALUE);
+        for (int c = 1; c < CLUSTERS; c++) {
+            double total = 0;
+            for (int i = 0; i < labs.length; i++) {
+                distances[i] = Math.min(distances[i], ColorSpace.distance(labs[i], centers[c - 1]));
+                total += distances[i] * weights[i];
+            }
+            if (total == 0) {
+                return Arrays.copyOf(centers, c);
+            }
+            double target = random.nextDouble() * total;
+            int pick = 0;
+            while (pick < labs.length - 1 && (target -= distances[pick] * weights[pick]) > 0) {
+                pick++;
+            }
+            centers[c] = labs[pick];
+        }
+        return centers;
+    }
+
+    private static int nearest(float[][] centers, float[] lab) {
+        int best = 0;
+        float bestDistance = Float.MAX_VALUE;
+        for (int c = 0; c < centers.length; c++) {
+            float distance = ColorSpace.distance(centers[c], lab);
+            if (distance < bestDistance) {
+                bestDistance = distance;
+                best = c;
+            }
+        }
+        return best;
+    }
+
+    // Mean color of the outermost ring of pixels when it is uniform, else null
+    private static float[] backdrop(float[][] labs) {
+        float[] mean = new float[3];
+        int count = 0;
+        for (int i = 0; i < labs.length; i++) {
+            if (onBorder(i)) {
+                mean[0] += labs[i][0];
+                mean[1] += labs[i][1];
+                mean[2] += labs[i][2];
+                count++;
+            }
+        }
+        mean[0] /= count;
+        mean[1] /= count;
+        mean[2] /= count;
+        float spread = 0;
+        for (int i = 0; i < labs.length; i++) {
+            if (onBorder(i)) {
+                spread += ColorSpace.distance(labs[i], mean);
+            }
+        }
+        return spread / count < BACKDROP_SPREAD ? mean : null;
+    }
+
+    private static boolean onBorder(int i) {
+        int x = i % SIDE;
+        int y = i / SIDE;
+        return x == 0 || y == 0 || x == SIDE - 1 || y == SIDE - 1;
+    }
+
+    private static float sum(float[] values) {
+        float sum = 0;
+        for (float value : values) {
+            sum += value;
+        }
+        return sum;
+    }
+}
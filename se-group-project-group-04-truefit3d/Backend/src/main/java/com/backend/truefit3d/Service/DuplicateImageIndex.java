@@ -0,0 +1,98 @@
+package com.backend.truefit3d.Service;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import com.backend.truefit3d.Model.ImageHash;
+import com.backend.truefit3d.Repo.ImageHashRepo;
+
+import jakarta.annotation.PostConstruct;
+
+// Near-duplicate photo lookup for uploads. Every stored photo's perceptual
+// hash is kept in image_hashes and, in memory, in a HammingIndex, so an
+// upload is checked against all stored photos without touching the database
+// unless something matches.
+@Component
+public class DuplicateImageIndex {
+    // Photos whose hashes differ in at most this many bits are the same photo
+    private static final int MAX_DISTANCE = 6;
+    // Nearly uniform photos hash to (almost) all zeros and would all match
+    private static final int MIN_BITS = 8;
+
+    @Autowired
+    private ImageHashRepo imageHashRepo;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final HammingIndex index = new HammingIndex(MAX_DISTANCE);
+
+    @PostConstruct
+    public void load() {
+        for (ImageHash row : imageHashRepo.findAll()) {
+            if (informative(row.getHash())) {
+                index.add(row.getHash(), Math.toIntExact(row.getClothId()));
+            }
+        }
+    }
+
+    // The closest of the user's own photos matching the hash; null when there
+    // is none. Other users' photos are only similar, never the same file, so
+    // they are not matches.
+    public ImageHash find(long hash, String ownerUsername) {
+        if (!informative(hash)) {
+            return null;
+        }
+        List<HammingIndex.Match> matches;
+        lock.readLock().lock();
+        try {
+            matches = index.within(hash);
+        } finally {
+            lock.readLock().unlock();
+        }
+        if (matches.isEmpty()) {
+            return null;
+        }
+
+        List<Long> ids = new ArrayList<>(matches.size());
+        for (HammingIndex.Match match : matches) {
+            ids.add((long) match.clothId());
+        }
+        Map<Long, ImageHash> rows = new HashMap<>();
+        for (ImageHash row : imageHashRepo.findAllById(ids)) {
+            rows.put(row.getClothId(), row);
+        }
+        matches.sort(Comparator.comparingInt(HammingIndex.Match::distance));
+        for (HammingIndex.Match match : matches) {
+            ImageHash row = rows.get((long) match.clothId());
+            if (row != null && row.getOwnerUsername().equals(ownerUsername)) {
+                return row;
+            }
+        }
+        return null;
+    }
+
+    public void add(long clothId, String ownerUsername, long hash, String fileName) {
+        imageHashRepo.save(new ImageHash(clothId, ownerUsername, hash, fileName));
+        if (!informative(hash)) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            index.add(hash, Math.toIntExact(clothId));
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private static boolean informative(long hash) {
+        int bits = Long.bitCount(hash);
+        return bits >= MIN_BITS && bits <= Long.SIZE - MIN_BITS;
+    }
+}
@@ -0,0 +1,149 @@
+package com.backend.truefit3d.Service;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.BiConsumer;
+
+import org.roaringbitmap.RoaringBitmap;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.backend.truefit3d.Model.FavoriteCloth;
+import com.backend.truefit3d.Model.UserFavorites;
+import com.backend.truefit3d.Repo.FavoriteClothRepo;
+import com.backend.truefit3d.Repo.UserFavoritesRepo;
+
+import jakarta.annotation.PostConstruct;
+
+// Per-user favorites as compressed bitmaps of cloth ids, persisted in
+// user_favorites and cached in favoritesCache. Cached bitmaps are never
+// modified in place: writers publish a modified copy, so readers can use
+// what they get without locking.
+@Component
+public class FavoriteStore {
+    @Autowired
+    private UserFavoritesRepo userFavoritesRepo;
+
+    @Autowired
+    private FavoriteClothRepo favoriteClothRepo;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    private DataMigrations dataMigrations;
+
+    // Moves favorites kept as favorite_clothes rows into bitmaps. Nothing
+    // writes that table any more, so it is read once per database.
+    @PostConstruct
+    public void migrate() {
+        dataMigrations.runOnce("favorite-bitmaps", this::copyLegacyFavorites);
+    }
+
+    private void copyLegacyFavorites() {
+        Map<String, RoaringBitmap> legacy = new LinkedHashMap<>();
+        for (FavoriteCloth favorite : favoriteClothRepo.findByIsFavorite(true)) {
+            try {
+                int clothId = Integer.parseInt(favorite.getClothId());
+                legacy.computeIfAbsent(favorite.getUsername(), u -> new RoaringBitmap()).add(clothId);
+            } catch (NumberFormatException e) {
+                // Cloth ids are numeric; ignore anything that is not
+            }
+        }
+        if (legacy.isEmpty()) {
+            return;
+        }
+
+        Set<String> migrated = new HashSet<>();
+        for (UserFavorites existing : userFavoritesRepo.findAllById(legacy.keySet())) {
+            migrated.add(existing.getUsername());
+        }
+        List<UserFavorites> rows = new ArrayList<>();
+        legacy.forEach((username, clothIds) -> {
+            if (!migrated.contains(username)) {
+                rows.add(new UserFavorites(username, serialize(clothIds)));
+            }
+        });
+        userFavoritesRepo.saveAll(rows);
+    }
+
+    // The returned bitmap is shared and must not be modified
+    public RoaringBitmap get(String username) {
+        return cache().get(username, () -> load(username));
+    }
+
+    public boolean isFavorite(String username, int clothId) {
+        return get(username).contains(clothId);
+    }
+
+    // Applies cloth id -> favorite toggles and returns the ones that changed.
+    // Inside a transaction the new bitmap is only cached once it commits.
+    public Map<Integer, Boolean> apply(String username, Map<Integer, Boolean> toggles) {
+        RoaringBitmap updated = get(username).clone();
+        Map<Integer, Boolean> changed = new LinkedHashMap<>();
+        toggles.forEach((clothId, favorite) -> {
+            if (favorite ? updated.checkedAdd(clothId) : updated.checkedRemove(clothId)) {
+                changed.put(clothId, favorite);
+            }
+        });
+        if (!changed.isEmpty()) {
+            updated.runOptimize();
+            userFavoritesRepo.save(new UserFavorites(username, serialize(updated)));
+            if (TransactionSynchronizationManager.isSynchronizationActive()) {
+                TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                    @Override
+                    public void afterCommit() {
+                        cache().put(username, updated);
+                    }
+                });
+            } else {
+                cache().put(username, updated);
+            }
+        }
+        return changed;
+    }
+
+    // Every stored favorites bitmap, read straight from the table
+    public void forEach(BiConsumer<String, RoaringBitmap> consumer) {
+        for (UserFavorites row : userFavoritesRepo.findAll()) {
+            consumer.accept(row.getUsername(), deserialize(row.getClothIds()));
+        }
+    }
+
+    private RoaringBitmap load(String username) {
+        return userFavoritesRepo.findById(username)
+            .map(row -> deserialize(row.getClothIds()))
+            .orElseGet(RoaringBitmap::new);
+    }
+
+    private static RoaringBitmap deserialize(byte[] bytes) {
+        RoaringBitmap clothIds = new RoaringBitmap();
+        try {
+            clothIds.deserialize(ByteBuffer.wrap(bytes));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return clothIds;
+    }
+
+    private static byte[] serialize(RoaringBitmap clothIds) {
+        byte[] bytes = new byte[clothIds.serializedSizeInBytes()];
+        clothIds.serialize(ByteBuffer.wrap(bytes));
+        return bytes;
+    }
+
+    private Cache cache() {
+        return cacheManager.getCache("favoritesCache");
+    }
+}
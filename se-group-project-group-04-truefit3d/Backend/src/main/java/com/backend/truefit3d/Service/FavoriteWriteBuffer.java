@@ -0,0 +1,144 @@
+package com.backend.truefit3d.Service;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.backend.truefit3d.Model.CatalogChange;
+import com.backend.truefit3d.Repo.CatalogChangeRepo;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+// Write-behind buffer for favorite toggles. Clicks only record the latest
+// state per (user, cloth) in memory; a background thread flushes the buffer
+// every FLUSH_INTERVAL_MS, or sooner once FLUSH_THRESHOLD toggles are pending,
+// writing each user's favorites bitmap once per flush instead of once per
+// click.
+@Component
+public class FavoriteWriteBuffer {
+    private static final Logger log = LoggerFactory.getLogger(FavoriteWriteBuffer.class);
+    private static final long FLUSH_INTERVAL_MS = 250;
+    private static final int FLUSH_THRESHOLD = 500;
+
+    @Autowired
+    private FavoriteStore favoriteStore;
+
+    @Autowired
+    private CatalogChangeRepo catalogChangeRepo;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    // username -> cloth id -> favorite. A user's map is only changed inside
+    // compute on the outer map, so dropping a drained map cannot lose a toggle
+    private final Map<String, Map<Integer, Boolean>> pending = new ConcurrentHashMap<>();
+    private final AtomicInteger pendingCount = new AtomicInteger();
+    private final AtomicBoolean flushQueued = new AtomicBoolean();
+    private final ScheduledExecutorService flusher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "favorite-flusher");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    @PostConstruct
+    public void start() {
+        flusher.scheduleWithFixedDelay(this::flushQuietly, FLUSH_INTERVAL_MS, FLUSH_INTERVAL_MS, TimeUnit.MILLISECONDS);
+    }
+
+    // Runs before the repositories are destroyed, so nothing acknowledged is lost
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        flusher.shutdown();
+        flusher.awaitTermination(10, TimeUnit.SECONDS);
+        flush();
+    }
+
+    public void toggle(String username, int clothId, boolean favorite) {
+        pending.compute(username, (user, toggles) -> {
+            Map<Integer, Boolean> result = toggles == null ? new ConcurrentHashMap<>() : toggles;
+            if (result.put(clothId, favorite) == null) {
+                pendingCount.incrementAndGet();
+            }
+            return result;
+        });
+        if (pendingCount.get() >= FLUSH_THRESHOLD && flushQueued.compareAndSet(false, true)) {
+            flusher.execute(this::flushQuietly);
+        }
+    }
+
+    // Unflushed toggles of one user, cloth id -> favorite
+    public Map<Integer, Boolean> pendingFor(String username) {
+        Map<Integer, Boolean> toggles = pending.get(username);
+        return toggles == null ? Map.of() : new HashMap<>(toggles);
+    }
+
+    // Entries stay pending until written, so readers that check pending
+    // toggles before the store never miss an acknowledged toggle
+    public synchronized void flush() {
+        flushQueued.set(false);
+        RuntimeException failure = null;
+        for (String username : List.copyOf(pending.keySet())) {
+            Map<Integer, Boolean> toggles = pendingFor(username);
+            if (toggles.isEmpty()) {
+                continue;
+            }
+            try {
+                write(username, toggles);
+                // Keep anything the user toggled again in the meantime
+                pending.computeIfPresent(username, (user, current) -> {
+                    toggles.forEach((clothId, favorite) -> {
+                        if (current.remove(clothId, favorite)) {
+                            pendingCount.decrementAndGet();
+                        }
+                    });
+                    return current.isEmpty() ? null : current;
+                });
+            } catch (RuntimeException e) {
+                failure = e;
+            }
+        }
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    // The bitmap and its change log rows commit together, so /changes clients
+    // never miss a favorite that was saved
+    private void write(String username, Map<Integer, Boolean> toggles) {
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            Map<Integer, Boolean> changed = favoriteStore.apply(username, toggles);
+            List<CatalogChange> changes = new ArrayList<>(changed.size());
+            changed.forEach((clothId, favorite) -> changes.add(change(clothId, favorite, username)));
+            catalogChangeRepo.appendAll(changes);
+        });
+    }
+
+    private static CatalogChange change(int clothId, boolean favorite, String username) {
+        return new CatalogChange(CatalogChange.KIND_FAVORITE, Integer.toString(clothId),
+            favorite ? CatalogChange.OP_UPSERT : CatalogChange.OP_DELETE, username, null);
+    }
+
+    private void flushQuietly() {
+        try {
+            flush();
+        } catch (RuntimeException e) {
+            // Keep the schedule alive; failed toggles stay pending and are retried
+            log.warn("Flushing favorite toggles failed, {} still pending", pendingCount.get(), e);
+        }
+    }
+}
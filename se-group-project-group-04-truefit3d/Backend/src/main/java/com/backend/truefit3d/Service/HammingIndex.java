@@ -0,0 +1,98 @@
+package com.backend.truefit3d.Service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+// Finds 64-bit hashes within a fixed Hamming radius r (multi-index hashing).
+// Hashes are cut into r + 1 chunks; two hashes at most r bits apart must
+// agree exactly on at least one chunk, so a search only compares the query
+// against the hashes filed under its own value of each chunk. Every entry is
+// reported once, from the first chunk it agrees on. Not thread-safe.
+public final class HammingIndex {
+    private final int radius;
+    private final int[] shifts;
+    private final long[] masks;
+    // buckets[chunk][value] holds entry indexes, with the count in slot 0
+    private final int[][][] buckets;
+
+    private long[] hashes = new long[1024];
+    private int[] clothIds = new int[1024];
+    private int size;
+
+    public HammingIndex(int radius) {
+        this.radius = radius;
+        int chunks = radius + 1;
+        shifts = new int[chunks];
+        masks = new long[chunks];
+        buckets = new int[chunks][][];
+        int start = 0;
+        for (int chunk = 0; chunk < chunks; chunk++) {
+            int width = (64 - start) / (chunks - chunk);
+            shifts[chunk] = start;
+            masks[chunk] = (1L << width) - 1;
+            buckets[chunk] = new int[1 << width][];
+            start += width;
+        }
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public void add(long hash, int clothId) {
+        if (size == hashes.length) {
+            hashes = Arrays.copyOf(hashes, size * 2);
+            clothIds = Arrays.copyOf(clothIds, size * 2);
+        }
+        int entry = size++;
+        hashes[entry] = hash;
+        clothIds[entry] = clothId;
+        for (int chunk = 0; chunk < shifts.length; chunk++) {
+            int value = chunk(hash, chunk);
+            int[] bucket = buckets[chunk][value];
+            if (bucket == null) {
+                bucket = new int[4];
+            } else if (bucket[0] + 1 == bucket.length) {
+                bucket = Arrays.copyOf(bucket, bucket.length * 2);
+            }
+            bucket[++bucket[0]] = entry;
+            buckets[chunk][value] = bucket;
+        }
+    }
+
+    // Every entry within the radius of the query, in no particular order
+    public List<Match> within(long hash) {
+        List<Match> matches = new ArrayList<>();
+        for (int chunk = 0; chunk < shifts.length; chunk++) {
+            int[] bucket = buckets[chunk][chunk(hash, chunk)];
+            if (bucket == null) {
+                continue;
+            }
+            for (int i = 1; i <= bucket[0]; i++) {
+                long other = hashes[bucket[i]];
+                int distance = PerceptualHash.distance(hash, other);
+                if (distance <= radius && firstAgreement(hash, other) == chunk) {
+                    matches.add(new Match(clothIds[bucket[i]], distance));
+                }
+            }
+        }
+        return matches;
+    }
+
+    private int firstAgreement(long a, long b) {
+        for (int chunk = 0; chunk < shifts.length; chunk++) {
+            if (chunk(a, chunk) == chunk(b, chunk)) {
+                return chunk;
+            }
+        }
+        return -1;
+    }
+
+    private int chunk(long hash, int chunk) {
+        return (int) ((hash >>> shifts[chunk]) & masks[chunk]);
+    }
+
+    public record Match(int clothId, int distance) {
+    }
+}
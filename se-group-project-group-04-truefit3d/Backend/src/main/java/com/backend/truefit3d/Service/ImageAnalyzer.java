@@ -0,0 +1,101 @@
+package com.backend.truefit3d.Service;
+
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import com.backend.truefit3d.Model.ClothSummary;
+
+import jakarta.annotation.PreDestroy;
+
+// Image analysis stage of the upload pipeline. Each stored photo is decoded
+// once on a small background pool and then fed to every consumer: the
+// downscaled derivatives first, since wardrobe grids wait for those, then the
+// visual search descriptor and the dominant color palette, which in turn
+// refreshes the indexes that use garment colors.
+//
+// The pool's queue is bounded. When it is full the uploading request thread
+// analyzes its own photo, so a burst of uploads slows down at the source
+// instead of piling decoded images up in memory.
+@Component
+public class ImageAnalyzer {
+    private static final int THREADS = Math.max(1, Math.min(2, Runtime.getRuntime().availableProcessors() / 2));
+    private static final int QUEUE_SIZE = 64;
+
+    @Autowired
+    private BlobStore blobStore;
+
+    @Autowired
+    private ImageDerivatives imageDerivatives;
+
+    @Autowired
+    private VisualSearchIndex visualSearchIndex;
+
+    @Autowired
+    private PaletteStore paletteStore;
+
+    @Autowired
+    private SimilarItemsIndex similarItemsIndex;
+
+    @Autowired
+    private ClothFacetIndex clothFacetIndex;
+
+    private final AtomicInteger threadCount = new AtomicInteger();
+    private final ThreadPoolExecutor analyzers = new ThreadPoolExecutor(THREADS, THREADS, 0, TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(QUEUE_SIZE), runnable -> {
+                Thread thread = new Thread(runnable, "image-analyzer-" + threadCount.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            }, new ThreadPoolExecutor.CallerRunsPolicy());
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        analyzers.shutdown();
+        analyzers.awaitTermination(10, TimeUnit.SECONDS);
+    }
+
+    // key is the photo's BlobStore key
+    public void submit(ClothSummary item, String ownerUsername, String key) {
+        analyzers.execute(() -> analyze(item, ownerUsername, key));
+    }
+
+    private void analyze(ClothSummary item, String ownerUsername, String key) {
+        BufferedImage decoded;
+        try (InputStream in = blobStore.open(key)) {
+            // Bounded and subsampled: this may run on the uploading request
+            // thread when the queue is full
+            decoded = ImageDecoder.read(in, ImageDerivatives.MAX_WIDTH);
+        } catch (IOException | RuntimeException | OutOfMemoryError e) {
+            return; // Too large or corrupt; the garment keeps its typed color
+        }
+        if (decoded == null) {
+            return; // Not a format ImageIO can read; the garment keeps its typed color
+        }
+        // Each stage fails on its own; the upload itself already succeeded
+        try {
+            imageDerivatives.write(key, decoded);
+        } catch (IOException | RuntimeException e) {
+            // The original is served until derivatives exist
+        }
+        try {
+            visualSearchIndex.add(item.getId(), ownerUsername, decoded);
+        } catch (RuntimeException e) {
+            // The garment is just not searchable by image
+        }
+        try {
+            int[] palette = DominantColors.of(decoded);
+            paletteStore.put(item.getId(), palette);
+            similarItemsIndex.update(item);
+            clothFacetIndex.addPalette(Math.toIntExact(item.getId()), palette);
+        } catch (RuntimeException e) {
+            // Color-based ranking falls back to the typed color
+        }
+    }
+}
@@ -0,0 +1,221 @@
+package com.backend.truefit3d.Service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+
+// Hot photo bytes kept outside the Java heap. The whole budget is one direct
+// buffer, allocated once and cut into BLOCK_SIZE blocks, so the cache can
+// never hold more than its budget and its contents add nothing to GC work.
+// Caffeine decides what stays (W-TinyLFU admission, weighed in blocks) and
+// keeps the largest entry's worth of blocks free for the next miss. Readers
+// pin an entry while copying from it; evicted blocks go back to the pool
+// once the last reader is done.
+@Component
+public class ImageCache {
+    private static final int BLOCK_SIZE = 8 * 1024;
+    private static final long MAX_ENTRY_BYTES = 4L * 1024 * 1024;
+
+    private final BlockPool pool;
+    private final long maxEntryBytes;
+    private final BlobStore blobStore;
+    private final Cache<String, Entry> entries;
+    private final LongAdder bytesServed = new LongAdder();
+
+    public ImageCache(BlobStore blobStore, @Value("${image.cache.bytes:67108864}") long budgetBytes) {
+        this.blobStore = blobStore;
+        int blocks = (int) Math.min(Integer.MAX_VALUE / BLOCK_SIZE, budgetBytes / BLOCK_SIZE);
+        pool = new BlockPool(blocks);
+        maxEntryBytes = Math.min(MAX_ENTRY_BYTES, (long) blocks * BLOCK_SIZE / 16);
+        long headroomBlocks = (maxEntryBytes + BLOCK_SIZE - 1) / BLOCK_SIZE;
+        entries = Caffeine.newBuilder()
+                .maximumWeight(Math.max(0, blocks - headroomBlocks))
+                .weigher((String key, Entry entry) -> entry.blocks.length)
+                .removalListener((String key, Entry entry, RemovalCause cause) -> {
+                    if (entry != null) {
+                        entry.release();
+                    }
+                })
+                // Evict on the writing thread so blocks are back before the next miss
+                .executor(Runnable::run)
+                .recordStats()
+                .build();
+    }
+
+    // The cached bytes of a blob, loaded on a miss; null when the blob is too
+    // large to cache or no blocks are free. Callers must release() the entry.
+    public Entry acquire(BlobStore.Blob blob) throws IOException {
+        long size = blob.size();
+        if (size == 0 || size > maxEntryBytes) {
+            return null;
+        }
+        long modified = blob.modified();
+        Entry entry = entries.getIfPresent(blob.key());
+        if (entry != null && entry.modified == modified && entry.length == size && entry.pin()) {
+            return entry;
+        }
+        int[] blocks = pool.allocate((int) ((size + BLOCK_SIZE - 1) / BLOCK_SIZE));
+        if (blocks == null) {
+            return null;
+        }
+        entry = new Entry(blocks, (int) size, modified);
+        // Local files are read straight into the blocks with one scatter read
+        try (ReadableByteChannel channel = blob.path() != null ? FileChannel.open(blob.path())
+                : Channels.newChannel(blobStore.open(blob.key()))) {
+            ByteBuffer[] targets = new ByteBuffer[blocks.length];
+            for (int i = 0; i < blocks.length; i++) {
+                targets[i] = pool.block(blocks[i]);
+            }
+            long read = 0;
+            int current = 0;
+            while (read < size) {
+                long n;
+                if (channel instanceof FileChannel file) {
+                    n = file.read(targets);
+                } else {
+                    while (current < targets.length && !targets[current].hasRemaining()) {
+                        current++;
+                    }
+                    n = current < targets.length ? channel.read(targets[current]) : -1;
+                }
+                if (n < 0) {
+                    break;
+                }
+                read += n;
+            }
+            if (read != size) {
+                entry.release();
+                return null; // Changed while we read it
+            }
+        } catch (IOException e) {
+            entry.release();
+            throw e;
+        }
+        entry.pin();
+        entries.put(blob.key(), entry);
+        return entry;
+    }
+
+    public Map<String, Object> stats() {
+        CacheStats stats = entries.stats();
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("hits", stats.hitCount());
+        result.put("misses", stats.missCount());
+        result.put("hitRatio", stats.hitRate());
+        result.put("evictions", stats.evictionCount());
+        result.put("bytesServedFromMemory", bytesServed.sum());
+        result.put("entries", entries.estimatedSize());
+        result.put("usedBytes", (long) pool.used() * BLOCK_SIZE);
+        result.put("budgetBytes", (long) pool.capacity() * BLOCK_SIZE);
+        return result;
+    }
+
+    public final class Entry {
+        private final int[] blocks;
+        private final int length;
+        private final long modified;
+        // One reference for the cache itself plus one per reader; the blocks
+        // are freed when it drops to zero
+        private final AtomicInteger references = new AtomicInteger(1);
+
+        private Entry(int[] blocks, int length, long modified) {
+            this.blocks = blocks;
+            this.length = length;
+            this.modified = modified;
+        }
+
+        private boolean pin() {
+            for (int count = references.get(); count > 0; count = references.get()) {
+                if (references.compareAndSet(count, count + 1)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        public void release() {
+            if (references.decrementAndGet() == 0) {
+                pool.free(blocks);
+            }
+        }
+
+        // Copies bytes [start, start + count) to out
+        public void writeTo(OutputStream out, long start, long count) throws IOException {
+            WritableByteChannel channel = Channels.newChannel(out);
+            long end = Math.min(length, start + count);
+            for (long position = start; position < end;) {
+                int block = (int) (position / BLOCK_SIZE);
+                int offset = (int) (position % BLOCK_SIZE);
+                int n = (int) Math.min(BLOCK_SIZE - offset, end - position);
+                ByteBuffer source = pool.block(blocks[block]).position(offset).limit(offset + n);
+                while (source.hasRemaining()) {
+                    channel.write(source);
+                }
+                position += n;
+            }
+            bytesServed.add(end - start);
+        }
+    }
+
+    // Fixed set of BLOCK_SIZE slices of a single direct buffer
+    private static final class BlockPool {
+        private final ByteBuffer memory;
+        private final int[] free;
+        private int freeCount;
+
+        BlockPool(int blocks) {
+            memory = ByteBuffer.allocateDirect(blocks * BLOCK_SIZE);
+            free = new int[blocks];
+            for (int i = 0; i < blocks; i++) {
+                free[i] = blocks - 1 - i;
+            }
+            freeCount = blocks;
+        }
+
+        // A fresh view of one block, so readers never share position or limit
+        ByteBuffer block(int index) {
+            return memory.slice(index * BLOCK_SIZE, BLOCK_SIZE);
+        }
+
+        synchronized int[] allocate(int count) {
+            if (count > freeCount) {
+                return null;
+            }
+            int[] blocks = new int[count];
+            for (int i = 0; i < count; i++) {
+                blocks[i] = free[--freeCount];
+            }
+            return blocks;
+        }
+
+        synchronized void free(int[] blocks) {
+            for (int block : blocks) {
+                free[freeCount++] = block;
+            }
+        }
+
+        synchronized int used() {
+            return free.length - freeCount;
+        }
+
+        int capacity() {
+            return free.length;
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package com.backend.truefit3d.Service;
+
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Iterator;
+
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
+
+// Decoding of untrusted photos. A small file can declare an enormous canvas,
+// so the dimensions are read from the header first and anything over
+// MAX_PIXELS is refused before a pixel is allocated. The rest is decoded
+// with source subsampling, so only about maxSide pixels on the longest side
+// are ever held in memory.
+public final class ImageDecoder {
+    public static final long MAX_PIXELS = 100_000_000L;
+
+    private ImageDecoder() {
+    }
+
+    // Decoded image, at least maxSide pixels on its longest side unless the
+    // photo is smaller; null when ImageIO cannot decode it
+    public static BufferedImage read(InputStream encoded, int maxSide) throws IOException {
+        try (ImageInputStream in = ImageIO.createImageInputStream(encoded)) {
+            if (in == null) {
+                return null;
+            }
+            Iterator<ImageReader> readers = ImageIO.getImageReaders(in);
+            if (!readers.hasNext()) {
+                return null;
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(in, true, true);
+                int width = reader.getWidth(0);
+                int height = reader.getHeight(0);
+                if ((long) width * height > MAX_PIXELS) {
+                    throw new RuntimeException("Image too large");
+                }
+                int step = Math.max(1, Math.max(width, height) / maxSide);
+                ImageReadParam param = reader.getDefaultReadParam();
+                param.setSourceSubsampling(step, step, 0, 0);
+                return reader.read(0, param);
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+}
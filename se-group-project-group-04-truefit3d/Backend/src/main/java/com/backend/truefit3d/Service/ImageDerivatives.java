@@ -0,0 +1,133 @@
+package com.backend.truefit3d.Service;
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.List;
+import java.util.regex.Pattern;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageOutputStream;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+// Downscaled copies of every stored photo, so a wardrobe grid does not pull
+// full-size originals. Each size is a progressive JPEG whose longest side is
+// at most the size's width, kept in the BlobStore as <size>/<name>.jpg. Photos
+// are halved step by step before the last resize, which keeps bilinear
+// filtering from dropping detail on large reductions.
+@Component
+public class ImageDerivatives {
+    public static final List<String> SIZES = List.of("thumb", "card", "full");
+    private static final int[] WIDTHS = { 200, 480, 1600 };
+    // Photos never need decoding beyond the largest size
+    public static final int MAX_WIDTH = WIDTHS[WIDTHS.length - 1];
+    private static final float QUALITY = 0.8f;
+    private static final Pattern FILE_NAME = Pattern.compile("[A-Za-z0-9_-][A-Za-z0-9._-]*");
+
+    @Autowired
+    private BlobStore blobStore;
+
+    // Writes every size of a stored photo that does not exist yet. Largest
+    // first, each smaller size scaled from the one before it.
+    public void write(String fileName, BufferedImage image) throws IOException {
+        BufferedImage source = image;
+        for (int i = SIZES.size() - 1; i >= 0; i--) {
+            String key = derivative(fileName, SIZES.get(i));
+            if (blobStore.exists(key)) {
+                continue; // Same content, e.g. a photo reused from another wardrobe
+            }
+            source = scale(source, WIDTHS[i]);
+            blobStore.put(key, jpeg(source));
+        }
+    }
+
+    // Key of the smallest size at least width pixels wide, or of the named
+    // size when width is 0. Falls back to the original while derivatives are
+    // pending; null for invalid names or missing photos.
+    public String resolve(String fileName, String size, int width) {
+        if (!FILE_NAME.matcher(fileName).matches()) {
+            return null;
+        }
+        int index = SIZES.indexOf(size);
+        if (width > 0) {
+            index = 0;
+            while (index < WIDTHS.length - 1 && WIDTHS[index] < width) {
+                index++;
+            }
+        }
+        if (index >= 0) {
+            String derivative = derivative(fileName, SIZES.get(index));
+            if (blobStore.exists(derivative)) {
+                return derivative;
+            }
+        }
+        return original(fileName);
+    }
+
+    // Key of the stored photo itself; null for invalid names or missing photos
+    public String original(String fileName) {
+        if (!FILE_NAME.matcher(fileName).matches()) {
+            return null;
+        }
+        return blobStore.exists(fileName) ? fileName : null;
+    }
+
+    // False for an original returned by resolve()
+    public static boolean isDerivative(String key) {
+        return key.indexOf('/') >= 0;
+    }
+
+    private static String derivative(String fileName, String size) {
+        int dot = fileName.lastIndexOf('.');
+        String stem = dot > 0 ? fileName.substring(0, dot) : fileName;
+        return size + "/" + stem + ".jpg";
+    }
+
+    // Opaque RGB copy whose longest side is at most width; never enlarges
+    private static BufferedImage scale(BufferedImage image, int width) {
+        double factor = Math.min(1.0, (double) width / Math.max(image.getWidth(), image.getHeight()));
+        int targetWidth = Math.max(1, (int) Math.round(image.getWidth() * factor));
+        int targetHeight = Math.max(1, (int) Math.round(image.getHeight() * factor));
+
+        BufferedImage current = image;
+        int currentWidth = image.getWidth();
+        int currentHeight = image.getHeight();
+        do {
+            boolean halve = currentWidth / 2 >= targetWidth && currentHeight / 2 >= targetHeight;
+            currentWidth = halve ? currentWidth / 2 : targetWidth;
+            currentHeight = halve ? currentHeight / 2 : targetHeight;
+            BufferedImage next = new BufferedImage(currentWidth, currentHeight, BufferedImage.TYPE_INT_RGB);
+            Graphics2D graphics = next.createGraphics();
+            graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            // Transparent backgrounds become white rather than black
+            graphics.drawImage(current, 0, 0, currentWidth, currentHeight, Color.WHITE, null);
+            graphics.dispose();
+            current = next;
+        } while (currentWidth != targetWidth || currentHeight != targetHeight);
+        return current;
+    }
+
+    private static byte[] jpeg(BufferedImage image) throws IOException {
+        ImageWriter writer = ImageIO.getImageWritersByFormatName("jpeg").next();
+        ImageWriteParam param = writer.getDefaultWriteParam();
+        param.setProgressiveMode(ImageWriteParam.MODE_DEFAULT);
+        param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+        param.setCompressionQuality(QUALITY);
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ImageOutputStream out = ImageIO.createImageOutputStream(bytes)) {
+            writer.setOutput(out);
+            writer.write(null, new IIOImage(image, null, null), param);
+        } finally {
+            writer.dispose();
+        }
+        return bytes.toByteArray();
+    }
+}
@@ -0,0 +1,132 @@
+package com.backend.truefit3d.Service;
+
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+
+// Compact visual descriptor of a garment photo: a normalized HSV color
+// histogram followed by a normalized edge-orientation histogram, both taken
+// from a SIDE x SIDE downsample. Pixels are weighted towards the center of
+// the photo, where the garment usually is, so backgrounds count for less.
+// distance() is a weighted sum of L1 distances and therefore a metric.
+public final class ImageDescriptor {
+    public static final int LENGTH = 80;
+    // Largest possible distance between two descriptors
+    public static final float MAX_DISTANCE = 3f;
+
+    private static final int SIDE = 64;
+    // Query photos only need decoding to about this size
+    public static final int DECODE_SIDE = 4 * SIDE;
+    private static final int HUE_BINS = 8;
+    private static final int SATURATION_BINS = 3;
+    private static final int VALUE_BINS = 3;
+    private static final int COLOR_BINS = HUE_BINS * SATURATION_BINS * VALUE_BINS;
+    private static final int EDGE_BINS = LENGTH - COLOR_BINS;
+    private static final float EDGE_WEIGHT = 0.5f;
+    // Gradients weaker than this are noise, not edges
+    private static final float MIN_GRADIENT = 24f;
+
+    private ImageDescriptor() {
+    }
+
+    public static float[] of(BufferedImage image) {
+        BufferedImage small = new BufferedImage(SIDE, SIDE, BufferedImage.TYPE_INT_RGB);
+        Graphics2D graphics = small.createGraphics();
+        graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+        graphics.drawImage(image, 0, 0, SIDE, SIDE, null);
+        graphics.dispose();
+        int[] pixels = small.getRGB(0, 0, SIDE, SIDE, null, 0, SIDE);
+
+        float[] descriptor = new float[LENGTH];
+        float[] luma = new float[pixels.length];
+        float[] weights = new float[pixels.length];
+        float[] hsv = new float[3];
+        float colorTotal = 0;
+        for (int y = 0; y < SIDE; y++) {
+            for (int x = 0; x < SIDE; x++) {
+                int i = y * SIDE + x;
+                float dx = (x + 0.5f) / SIDE * 2 - 1;
+                float dy = (y + 0.5f) / SIDE * 2 - 1;
+                weights[i] = Math.max(0.1f, 1 - (dx * dx + dy * dy) / 2);
+
+                int rgb = pixels[i];
+                int r = (rgb >> 16) & 0xFF;
+                int g = (rgb >> 8) & 0xFF;
+                int b = rgb & 0xFF;
+                luma[i] = 0.299f * r + 0.587f * g + 0.114f * b;
+                hsv(r, g, b, hsv);
+                int hue = Math.min((int) (hsv[0] * HUE_BINS), HUE_BINS - 1);
+                int saturation = Math.min((int) (hsv[1] * SATURATION_BINS), SATURATION_BINS - 1);
+                int value = Math.min((int) (hsv[2] * VALUE_BINS), VALUE_BINS - 1);
+                descriptor[(hue * SATURATION_BINS + saturation) * VALUE_BINS + value] += weights[i];
+                colorTotal += weights[i];
+            }
+        }
+        normalize(descriptor, 0, COLOR_BINS, colorTotal);
+
+        // Sobel gradients; orientation folded into [0, pi) and weighted by magnitude
+        float edgeTotal = 0;
+        for (int y = 1; y < SIDE - 1; y++) {
+            for (int x = 1; x < SIDE - 1; x++) {
+                int i = y * SIDE + x;
+                float gx = luma[i - SIDE + 1] + 2 * luma[i + 1] + luma[i + SIDE + 1]
+                        - luma[i - SIDE - 1] - 2 * luma[i - 1] - luma[i + SIDE - 1];
+                float gy = luma[i + SIDE - 1] + 2 * luma[i + SIDE] + luma[i + SIDE + 1]
+                        - luma[i - SIDE - 1] - 2 * luma[i - SIDE] - luma[i - SIDE + 1];
+                float magnitude = (float) Math.sqrt(gx * gx + gy * gy);
+                if (magnitude < MIN_GRADIENT) {
+                    continue;
+                }
+                double angle = Math.atan2(gy, gx);
+                if (angle < 0) {
+                    angle += Math.PI;
+                }
+                int bin = Math.min((int) (angle / Math.PI * EDGE_BINS), EDGE_BINS - 1);
+                descriptor[COLOR_BINS + bin] += magnitude * weights[i];
+                edgeTotal += magnitude * weights[i];
+            }
+        }
+        normalize(descriptor, COLOR_BINS, LENGTH, edgeTotal);
+        return descriptor;
+    }
+
+    public static float distance(float[] a, float[] b) {
+        float color = 0;
+        for (int i = 0; i < COLOR_BINS; i++) {
+            color += Math.abs(a[i] - b[i]);
+        }
+        float edges = 0;
+        for (int i = COLOR_BINS; i < LENGTH; i++) {
+            edges += Math.abs(a[i] - b[i]);
+        }
+        return color + EDGE_WEIGHT * edges;
+    }
+
+    private static void normalize(float[] descriptor, int from, int to, float total) {
+        if (total > 0) {
+            for (int i = from; i < to; i++) {
+                descriptor[i] /= total;
+            }
+        }
+    }
+
+    // Hue, saturation and value, each in [0, 1]
+    private static void hsv(int r, int g, int b, float[] hsv) {
+        int max = Math.max(r, Math.max(g, b));
+        int min = Math.min(r, Math.min(g, b));
+        float delta = max - min;
+        float hue = 0;
+        if (delta > 0) {
+            if (max == r) {
+                hue = ((g - b) / delta + 6) % 6;
+            } else if (max == g) {
+                hue = (b - r) / delta + 2;
+            } else {
+                hue = (r - g) / delta + 4;
+            }
+        }
+        hsv[0] = hue / 6;
+        hsv[1] = max == 0 ? 0 : delta / max;
+        hsv[2] = max / 255f;
+    }
+}
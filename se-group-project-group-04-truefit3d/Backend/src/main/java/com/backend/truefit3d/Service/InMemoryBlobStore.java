@@ -0,0 +1,69 @@
+package com.backend.truefit3d.Service;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.NoSuchFileException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+// Blobs on the heap, for tests and throwaway instances (blob.store=memory).
+// Nothing survives a restart.
+@Component
+@ConditionalOnProperty(name = "blob.store", havingValue = "memory")
+public class InMemoryBlobStore implements BlobStore {
+    private final Map<String, Stored> blobs = new ConcurrentHashMap<>();
+
+    @Override
+    public String store(InputStream in, String extension) throws IOException {
+        byte[] bytes = in.readAllBytes();
+        String key = HexFormat.of().formatHex(sha256().digest(bytes)) + BlobStore.normalizeExtension(extension);
+        blobs.putIfAbsent(key, new Stored(bytes, System.currentTimeMillis()));
+        return key;
+    }
+
+    @Override
+    public void put(String key, byte[] bytes) {
+        if (!BlobStore.isValidKey(key)) {
+            throw new IllegalArgumentException("Invalid blob key");
+        }
+        blobs.put(key, new Stored(bytes.clone(), System.currentTimeMillis()));
+    }
+
+    @Override
+    public boolean exists(String key) {
+        return key != null && blobs.containsKey(key);
+    }
+
+    @Override
+    public Blob stat(String key) {
+        Stored stored = key == null ? null : blobs.get(key);
+        return stored == null ? null : new Blob(key, stored.bytes().length, stored.modified(), null);
+    }
+
+    @Override
+    public InputStream open(String key) throws IOException {
+        Stored stored = key == null ? null : blobs.get(key);
+        if (stored == null) {
+            throw new NoSuchFileException(key);
+        }
+        return new ByteArrayInputStream(stored.bytes());
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    private record Stored(byte[] bytes, long modified) {
+    }
+}
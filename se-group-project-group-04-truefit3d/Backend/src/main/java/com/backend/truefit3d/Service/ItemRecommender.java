@@ -0,0 +1,284 @@
+package com.backend.truefit3d.Service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.IntPredicate;
+
+import org.roaringbitmap.RoaringBitmap;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import com.backend.truefit3d.Model.ClothCombination;
+import com.backend.truefit3d.Repo.ClothCatalogRepo;
+import com.backend.truefit3d.Repo.ClothCombinationRepo;
+
+import jakarta.annotation.PostConstruct;
+
+// Item-item collaborative filtering. Every user has a bitmap of the garments
+// they favorited or liked in a combination, and every garment has a sparse
+// row counting how many users engaged with it together with each other
+// garment. Adding or removing one engagement touches only the rows of the
+// user's other garments, so the model is kept current on every click.
+//
+// A user's candidates are scored as the sum of cosine similarities
+// (co-count / sqrt(users(i) * users(j))) to the garments they engaged with.
+// Garments from disliked combinations are never recommended back.
+@Component
+public class ItemRecommender {
+    // Arrays are indexed by cloth id; ids past this are ignored rather than
+    // allocating for them
+    private static final int MAX_CLOTH_ID = 1 << 24;
+
+    @Autowired
+    private ClothCatalogRepo clothCatalogRepo;
+
+    @Autowired
+    private FavoriteStore favoriteStore;
+
+    @Autowired
+    private ClothCombinationRepo clothCombinationRepo;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<String, Integer> userIds = new HashMap<>();
+    private final List<RoaringBitmap> engaged = new ArrayList<>();
+    private final List<RoaringBitmap> rejected = new ArrayList<>();
+    private IntFloatMap[] cooccurrence = new IntFloatMap[1024];
+    private int[] itemUsers = new int[1024];
+
+    @PostConstruct
+    public void load() {
+        // Engagements saved before ids were checked may point at garments that never existed
+        RoaringBitmap catalog = clothCatalogRepo.findAllIds();
+        favoriteStore.forEach((username, clothIds) -> RoaringBitmap.and(clothIds, catalog)
+                .forEach((int clothId) -> add(username, clothId)));
+        for (ClothCombination reaction : clothCombinationRepo.findAll()) {
+            for (int clothId : ClothCombination.outfitClothIdsOf(reaction.getClothid())) {
+                if (!catalog.contains(clothId)) {
+                    continue;
+                }
+                if (Boolean.TRUE.equals(reaction.getAccepted())) {
+                    add(reaction.getUsername(), clothId);
+                } else {
+                    reject(reaction.getUsername(), clothId);
+                }
+            }
+        }
+    }
+
+    public void add(String username, int clothId) {
+        if (clothId < 0 || clothId >= MAX_CLOTH_ID) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            int user = intern(username);
+            rejected.get(user).remove(clothId);
+            RoaringBitmap items = engaged.get(user);
+            if (!items.checkedAdd(clothId)) {
+                return;
+            }
+            ensureCapacity(clothId);
+            itemUsers[clothId]++;
+            count(items, clothId, 1f);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(String username, int clothId) {
+        lock.writeLock().lock();
+        try {
+            Integer user = userIds.get(username);
+            if (user == null) {
+                return;
+            }
+            RoaringBitmap items = engaged.get(user);
+            if (!items.checkedRemove(clothId)) {
+                return;
+            }
+            itemUsers[clothId]--;
+            count(items, clothId, -1f);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void reject(String username, int clothId) {
+        lock.writeLock().lock();
+        try {
+            rejected.get(intern(username)).add(clothId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Garments the user engaged with or rejected, which are never recommended
+    public RoaringBitmap seen(String username) {
+        lock.readLock().lock();
+        try {
+            Integer user = userIds.get(username);
+            return user == null ? new RoaringBitmap() : RoaringBitmap.or(engaged.get(user), rejected.get(user));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public RoaringBitmap engaged(String username) {
+        lock.readLock().lock();
+        try {
+            Integer user = userIds.get(username);
+            return user == null ? new RoaringBitmap() : engaged.get(user).clone();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public RoaringBitmap rejected(String username) {
+        lock.readLock().lock();
+        try {
+            Integer user = userIds.get(username);
+            return user == null ? new RoaringBitmap() : rejected.get(user).clone();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Highest cosine similarity of a garment to any other garment
+    public float maxSimilarity(int clothId) {
+        lock.readLock().lock();
+        try {
+            IntFloatMap row = clothId >= 0 && clothId < cooccurrence.length ? cooccurrence[clothId] : null;
+            if (row == null) {
+                return 0f;
+            }
+            float[] max = { 0f };
+            float users = itemUsers[clothId];
+            row.forEach((other, together) -> {
+                if (together > 0) {
+                    max[0] = Math.max(max[0], (float) (together / Math.sqrt(users * itemUsers[other])));
+                }
+            });
+            return max[0];
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Cosine similarity of one garment to each of others, 0 when never seen together
+    public float[] similarities(int clothId, int[] others) {
+        float[] result = new float[others.length];
+        lock.readLock().lock();
+        try {
+            IntFloatMap row = clothId >= 0 && clothId < cooccurrence.length ? cooccurrence[clothId] : null;
+            if (row == null) {
+                return result;
+            }
+            for (int i = 0; i < others.length; i++) {
+                float together = row.get(others[i]);
+                if (together > 0) {
+                    result[i] = (float) (together / Math.sqrt((float) itemUsers[clothId] * itemUsers[others[i]]));
+                }
+            }
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Top n unseen garments for the user, best first; empty for users
+    // without any engagement yet
+    public List<ClothScore> recommend(String username, int n, IntPredicate available) {
+        lock.readLock().lock();
+        try {
+            Integer user = userIds.get(username);
+            if (user == null || engaged.get(user).isEmpty()) {
+                return List.of();
+            }
+            RoaringBitmap items = engaged.get(user);
+            RoaringBitmap skip = rejected.get(user);
+
+            IntFloatMap scores = new IntFloatMap(256);
+            items.forEach((int clothId) -> {
+                IntFloatMap row = cooccurrence[clothId];
+                if (row == null) {
+                    return;
+                }
+                float users = itemUsers[clothId];
+                row.forEach((other, together) -> {
+                    if (together > 0 && !items.contains(other)) {
+                        scores.add(other, (float) (together / Math.sqrt(users * itemUsers[other])));
+                    }
+                });
+            });
+
+            PriorityQueue<ClothScore> heap = new PriorityQueue<>(n + 1, Comparator.comparingDouble(ClothScore::score));
+            scores.forEach((clothId, score) -> {
+                if (heap.size() == n && score <= heap.peek().score()) {
+                    return;
+                }
+                if (skip.contains(clothId) || !available.test(clothId)) {
+                    return;
+                }
+                heap.add(new ClothScore(clothId, score));
+                if (heap.size() > n) {
+                    heap.poll();
+                }
+            });
+            List<ClothScore> result = new ArrayList<>(heap);
+            result.sort(Comparator.comparingDouble(ClothScore::score).reversed());
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Caller must hold the write lock
+    private void count(RoaringBitmap items, int clothId, float delta) {
+        IntFloatMap row = row(clothId);
+        items.forEach((int other) -> {
+            if (other != clothId) {
+                row.add(other, delta);
+                row(other).add(clothId, delta);
+            }
+        });
+    }
+
+    // Caller must hold the write lock
+    private IntFloatMap row(int clothId) {
+        IntFloatMap row = cooccurrence[clothId];
+        if (row == null) {
+            row = new IntFloatMap();
+            cooccurrence[clothId] = row;
+        }
+        return row;
+    }
+
+    // Caller must hold the write lock
+    private void ensureCapacity(int clothId) {
+        if (clothId >= cooccurrence.length) {
+            int capacity = (int) Math.min(MAX_CLOTH_ID, Math.max(2L * cooccurrence.length, clothId + 1L));
+            cooccurrence = Arrays.copyOf(cooccurrence, capacity);
+            itemUsers = Arrays.copyOf(itemUsers, capacity);
+        }
+    }
+
+    // Caller must hold the write lock
+    private int intern(String username) {
+        Integer id = userIds.get(username);
+        if (id != null) {
+            return id;
+        }
+        int next = engaged.size();
+        engaged.add(new RoaringBitmap());
+        rejected.add(new RoaringBitmap());
+        userIds.put(username, next);
+        return next;
+    }
+}
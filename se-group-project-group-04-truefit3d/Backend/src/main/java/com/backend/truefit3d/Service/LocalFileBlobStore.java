@@ -0,0 +1,147 @@
+package com.backend.truefit3d.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+// Blobs as files under upload.directory, fanned out over two directory levels
+// named after the first four hex digits of the SHA-256 of the file name:
+// <root>/[<size>/]ab/cd/<name>. That spreads any number of photos over 65536
+// directories, so no directory grows large enough to slow down lookups.
+// Files written flat into the root before the fan-out are still read from
+// there.
+//
+// Uploads are streamed through one direct buffer into a temporary file while
+// their SHA-256 is computed, then renamed into place; when the target already
+// exists the temporary copy is dropped.
+@Component
+@ConditionalOnProperty(name = "blob.store", havingValue = "local", matchIfMissing = true)
+public class LocalFileBlobStore implements BlobStore {
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final Path root;
+
+    public LocalFileBlobStore(@Value("${upload.directory}") String uploadDirectory) {
+        this.root = Paths.get(uploadDirectory);
+    }
+
+    @Override
+    public String store(InputStream in, String extension) throws IOException {
+        Files.createDirectories(root);
+        MessageDigest digest = sha256();
+        Path temp = Files.createTempFile(root, ".upload-", ".tmp");
+        try {
+            try (ReadableByteChannel source = Channels.newChannel(in);
+                    FileChannel target = FileChannel.open(temp, StandardOpenOption.WRITE)) {
+                ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+                while (source.read(buffer) >= 0) {
+                    buffer.flip();
+                    digest.update(buffer.duplicate());
+                    while (buffer.hasRemaining()) {
+                        target.write(buffer);
+                    }
+                    buffer.clear();
+                }
+            }
+            String key = HexFormat.of().formatHex(digest.digest()) + BlobStore.normalizeExtension(extension);
+            if (locate(key) == null) {
+                Path stored = shardPath(key);
+                Files.createDirectories(stored.getParent());
+                // A concurrent upload of the same bytes may win the rename; its
+                // file has identical content
+                Files.move(temp, stored, StandardCopyOption.ATOMIC_MOVE);
+            }
+            return key;
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    @Override
+    public void put(String key, byte[] bytes) throws IOException {
+        Path target = shardPath(key);
+        Files.createDirectories(target.getParent());
+        Path temp = Files.createTempFile(target.getParent(), ".blob-", ".tmp");
+        try {
+            Files.write(temp, bytes);
+            Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    @Override
+    public boolean exists(String key) {
+        return BlobStore.isValidKey(key) && locate(key) != null;
+    }
+
+    @Override
+    public Blob stat(String key) throws IOException {
+        Path file = BlobStore.isValidKey(key) ? locate(key) : null;
+        if (file == null) {
+            return null;
+        }
+        try {
+            BasicFileAttributes attributes = Files.readAttributes(file, BasicFileAttributes.class);
+            return new Blob(key, attributes.size(), attributes.lastModifiedTime().toMillis(), file);
+        } catch (NoSuchFileException e) {
+            return null;
+        }
+    }
+
+    @Override
+    public InputStream open(String key) throws IOException {
+        Path file = BlobStore.isValidKey(key) ? locate(key) : null;
+        if (file == null) {
+            throw new NoSuchFileException(key);
+        }
+        return Files.newInputStream(file);
+    }
+
+    // The sharded file, or the legacy flat one; null when neither exists
+    private Path locate(String key) {
+        Path sharded = shardPath(key);
+        if (Files.isRegularFile(sharded)) {
+            return sharded;
+        }
+        Path legacy = root.resolve(key);
+        return Files.isRegularFile(legacy) ? legacy : null;
+    }
+
+    private Path shardPath(String key) {
+        if (!BlobStore.isValidKey(key)) {
+            throw new IllegalArgumentException("Invalid blob key");
+        }
+        int slash = key.lastIndexOf('/');
+        String name = key.substring(slash + 1);
+        String hash = HexFormat.of().formatHex(sha256().digest(name.getBytes(StandardCharsets.UTF_8)));
+        Path directory = slash < 0 ? root : root.resolve(key.substring(0, slash));
+        return directory.resolve(hash.substring(0, 2)).resolve(hash.substring(2, 4)).resolve(name);
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new RuntimeException(e);
+        }
+    }
+}
@@ -0,0 +1,249 @@
+package com.backend.truefit3d.Service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.DoubleAccumulator;
+
+import org.roaringbitmap.RoaringBitmap;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import com.backend.truefit3d.Model.ClothSummary;
+import com.backend.truefit3d.Model.OutfitSuggestion;
+
+// Best-first search for top/bottom pairs. A pair's score is a per-garment
+// part (the user's likes and rejections) plus a pair part (color harmony,
+// material compatibility and how often users engage with both). Each top gets
+// an upper bound: its own part, the best pair part it could reach and the
+// best bottom's part. Tops are visited in bound order and bottoms in order of
+// their own part, so once a bound cannot beat the current K-th best no later
+// top, or bottom within a top, can either. The cartesian product is never
+// materialized.
+//
+// Wardrobes with more than PARALLEL_PAIRS pairs are split over the common
+// fork/join pool by ranges of tops. Every task keeps its own bounded heap and
+// publishes its K-th best score, so all tasks prune against the best bar
+// found so far.
+@Component
+public class OutfitGenerator {
+    private static final double COLOR_WEIGHT = 0.4;
+    private static final double MATERIAL_WEIGHT = 0.2;
+    private static final double AFFINITY_WEIGHT = 0.2;
+    private static final double LIKE_WEIGHT = 0.1;
+    private static final double REJECT_WEIGHT = 0.1;
+    // Best colorHarmony and materialCompatibility any pair can get
+    private static final double MAX_HARMONY = 0.9;
+    private static final double MAX_MATERIAL = 0.9;
+
+    private static final int PARALLEL_PAIRS = 20_000;
+    private static final int MIN_TOPS_PER_TASK = 8;
+
+    // Hue in degrees; NEUTRAL colors go with anything
+    private static final float NEUTRAL = -1f;
+    private static final Map<String, Float> HUES = Map.ofEntries(
+            Map.entry("red", 0f), Map.entry("maroon", 345f), Map.entry("burgundy", 345f),
+            Map.entry("orange", 30f), Map.entry("yellow", 55f), Map.entry("mustard", 50f),
+            Map.entry("olive", 80f), Map.entry("green", 120f), Map.entry("teal", 175f),
+            Map.entry("turquoise", 175f), Map.entry("cyan", 185f), Map.entry("blue", 220f),
+            Map.entry("purple", 275f), Map.entry("violet", 270f), Map.entry("lavender", 270f),
+            Map.entry("magenta", 300f), Map.entry("pink", 330f),
+            Map.entry("black", NEUTRAL), Map.entry("white", NEUTRAL), Map.entry("grey", NEUTRAL),
+            Map.entry("gray", NEUTRAL), Map.entry("navy", NEUTRAL), Map.entry("beige", NEUTRAL),
+            Map.entry("cream", NEUTRAL), Map.entry("khaki", NEUTRAL), Map.entry("brown", NEUTRAL),
+            Map.entry("denim", NEUTRAL), Map.entry("silver", NEUTRAL), Map.entry("charcoal", NEUTRAL));
+
+    @Autowired
+    private ItemRecommender itemRecommender;
+
+    @Autowired
+    private PaletteStore paletteStore;
+
+    // Up to k pairs, best first. rejectedPairs holds pack(top, bottom) of
+    // combinations the user disliked; those are never suggested again.
+    public List<OutfitSuggestion> generate(String username, List<ClothSummary> tops, List<ClothSummary> bottoms,
+            Set<Long> rejectedPairs, int k) {
+        if (tops.isEmpty() || bottoms.isEmpty()) {
+            return List.of();
+        }
+        RoaringBitmap liked = itemRecommender.engaged(username);
+        RoaringBitmap rejected = itemRecommender.rejected(username);
+
+        Garment[] topGarments = garments(tops, liked, rejected, true);
+        Garment[] bottomGarments = garments(bottoms, liked, rejected, false);
+        Arrays.sort(bottomGarments, Comparator.comparingDouble(Garment::bound).reversed());
+        Arrays.sort(topGarments, Comparator.comparingDouble(Garment::bound).reversed());
+        int[] bottomIds = new int[bottomGarments.length];
+        for (int i = 0; i < bottomIds.length; i++) {
+            bottomIds[i] = bottomGarments[i].id();
+        }
+
+        Search search = new Search(itemRecommender, topGarments, bottomGarments, bottomIds, rejectedPairs, k,
+                new DoubleAccumulator(Math::max, Double.NEGATIVE_INFINITY));
+        PriorityQueue<Pair> best = (long) tops.size() * bottoms.size() > PARALLEL_PAIRS
+                ? ForkJoinPool.commonPool().invoke(search.task(0, topGarments.length))
+                : search.scan(0, topGarments.length);
+
+        List<Pair> ranked = new ArrayList<>(best);
+        ranked.sort(Comparator.comparingDouble(Pair::score).reversed());
+        List<OutfitSuggestion> result = new ArrayList<>(ranked.size());
+        for (Pair pair : ranked) {
+            ClothSummary top = topGarments[pair.top()].item();
+            ClothSummary bottom = bottomGarments[pair.bottom()].item();
+            result.add(new OutfitSuggestion(top.getId() + "-" + bottom.getId(), top, bottom, pair.score()));
+        }
+        return result;
+    }
+
+    public static long pack(long topId, long bottomId) {
+        return (topId << 32) | (bottomId & 0xFFFFFFFFL);
+    }
+
+    // A top's bound adds the best pair part it can reach; a bottom's bound is
+    // its own part
+    private Garment[] garments(List<ClothSummary> items, RoaringBitmap liked, RoaringBitmap rejected, boolean tops) {
+        Garment[] garments = new Garment[items.size()];
+        for (int i = 0; i < garments.length; i++) {
+            ClothSummary item = items.get(i);
+            int id = Math.toIntExact(item.getId());
+            double itemScore = (liked.contains(id) ? LIKE_WEIGHT : 0) - (rejected.contains(id) ? REJECT_WEIGHT : 0);
+            String material = item.getMaterial() == null ? "" : item.getMaterial().toLowerCase(Locale.ROOT);
+            double bound = !tops ? itemScore : itemScore + COLOR_WEIGHT * MAX_HARMONY
+                    + MATERIAL_WEIGHT * MAX_MATERIAL + AFFINITY_WEIGHT * itemRecommender.maxSimilarity(id);
+            garments[i] = new Garment(item, id, hue(item), material, itemScore, bound);
+        }
+        return garments;
+    }
+
+    // Hue of the photo's dominant color once known, else of the typed color
+    private float hue(ClothSummary item) {
+        int rgb = paletteStore.dominant(item.getId());
+        return hue(rgb < 0 ? item.getColor() : ColorSpace.name(rgb));
+    }
+
+    // First word of the color name with a known hue, NaN when there is none
+    private static float hue(String color) {
+        if (color == null) {
+            return Float.NaN;
+        }
+        for (String word : color.toLowerCase(Locale.ROOT).split("[^a-z]+")) {
+            Float hue = HUES.get(word);
+            if (hue != null) {
+                return hue;
+            }
+        }
+        return Float.NaN;
+    }
+
+    private static double colorHarmony(float top, float bottom) {
+        if (Float.isNaN(top) || Float.isNaN(bottom)) {
+            return 0.5;
+        }
+        if (top == NEUTRAL || bottom == NEUTRAL) {
+            return top == bottom ? 0.75 : 0.85;
+        }
+        float distance = Math.abs(top - bottom) % 360;
+        distance = Math.min(distance, 360 - distance);
+        if (distance >= 150) {
+            return 0.9; // complementary
+        }
+        if (distance <= 30) {
+            return 0.8; // analogous
+        }
+        if (distance >= 110 && distance <= 130) {
+            return 0.7; // triadic
+        }
+        return 0.4;
+    }
+
+    private static double materialCompatibility(String top, String bottom) {
+        if (top.isEmpty() || bottom.isEmpty() || top.equals("unknown") || bottom.equals("unknown")) {
+            return 0.5;
+        }
+        if (bottom.contains("denim")) {
+            return top.contains("denim") ? 0.3 : top.contains("cotton") || top.contains("linen") ? 0.9 : 0.7;
+        }
+        if (top.equals(bottom)) {
+            return top.contains("cotton") ? 0.7 : 0.5;
+        }
+        return 0.7;
+    }
+
+    private record Garment(ClothSummary item, int id, float hue, String material, double itemScore,
+            double bound) {
+    }
+
+    // Indexes into the sorted garment arrays
+    private record Pair(int top, int bottom, double score) {
+    }
+
+    private record Search(ItemRecommender recommender, Garment[] tops, Garment[] bottoms, int[] bottomIds,
+            Set<Long> rejectedPairs, int k, DoubleAccumulator bar) {
+
+        RecursiveTask<PriorityQueue<Pair>> task(int from, int to) {
+            return new RecursiveTask<>() {
+                @Override
+                protected PriorityQueue<Pair> compute() {
+                    if ((long) (to - from) * bottoms.length <= PARALLEL_PAIRS || to - from <= MIN_TOPS_PER_TASK) {
+                        return scan(from, to);
+                    }
+                    int mid = (from + to) >>> 1;
+                    RecursiveTask<PriorityQueue<Pair>> left = task(from, mid);
+                    left.fork();
+                    PriorityQueue<Pair> merged = task(mid, to).invoke();
+                    for (Pair pair : left.join()) {
+                        offer(merged, pair);
+                    }
+                    return merged;
+                }
+            };
+        }
+
+        PriorityQueue<Pair> scan(int from, int to) {
+            PriorityQueue<Pair> heap = new PriorityQueue<>(k + 1, Comparator.comparingDouble(Pair::score));
+            double bestBottom = bottoms[0].bound();
+            for (int t = from; t < to; t++) {
+                Garment top = tops[t];
+                if (top.bound() + bestBottom <= bar.get()) {
+                    break;
+                }
+                float[] affinity = recommender.similarities(top.id(), bottomIds);
+                for (int b = 0; b < bottoms.length; b++) {
+                    Garment bottom = bottoms[b];
+                    if (top.bound() + bottom.bound() <= bar.get()) {
+                        break;
+                    }
+                    if (rejectedPairs.contains(pack(top.id(), bottom.id()))) {
+                        continue;
+                    }
+                    double score = top.itemScore() + bottom.itemScore()
+                            + COLOR_WEIGHT * colorHarmony(top.hue(), bottom.hue())
+                            + MATERIAL_WEIGHT * materialCompatibility(top.material(), bottom.material())
+                            + AFFINITY_WEIGHT * affinity[b];
+                    offer(heap, new Pair(t, b, score));
+                }
+            }
+            return heap;
+        }
+
+        void offer(PriorityQueue<Pair> heap, Pair pair) {
+            if (heap.size() == k && pair.score() <= heap.peek().score()) {
+                return;
+            }
+            heap.add(pair);
+            if (heap.size() > k) {
+                heap.poll();
+            }
+            if (heap.size() == k) {
+                bar.accumulate(heap.peek().score());
+            }
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package com.backend.truefit3d.Service;
+
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BiConsumer;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import com.backend.truefit3d.Model.ClothPalette;
+import com.backend.truefit3d.Repo.ClothPaletteRepo;
+
+import jakarta.annotation.PostConstruct;
+
+// Photo palettes of every garment, persisted in cloth_palettes and kept in
+// memory for the indexes and recommenders. Garments whose photo has not been
+// analyzed yet have no palette and fall back to their typed color.
+@Component
+public class PaletteStore {
+    // Photo colors covering at least this share of the garment count as its colors
+    private static final float MAIN_SHARE = 0.15f;
+
+    @Autowired
+    private ClothPaletteRepo clothPaletteRepo;
+
+    private final Map<Integer, int[]> palettes = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    public void load() {
+        for (ClothPalette row : clothPaletteRepo.findAll()) {
+            palettes.put(Math.toIntExact(row.getClothId()), row.getColors());
+        }
+    }
+
+    // The returned array is shared and must not be modified
+    public int[] get(long clothId) {
+        return palettes.get((int) clothId);
+    }
+
+    // Packed 0xRRGGBB of the garment's most dominant color, or -1
+    public int dominant(long clothId) {
+        int[] palette = get(clothId);
+        return palette == null || palette.length == 0 ? -1 : DominantColors.rgb(palette[0]);
+    }
+
+    // Color names of a palette's main colors
+    public static Set<String> names(int[] palette) {
+        Set<String> names = new LinkedHashSet<>();
+        for (int color : palette) {
+            if (DominantColors.share(color) >= MAIN_SHARE) {
+                names.add(ColorSpace.name(DominantColors.rgb(color)));
+            }
+        }
+        return names;
+    }
+
+    public boolean hasColor(long clothId, String name) {
+        int[] palette = get(clothId);
+        return palette != null && names(palette).contains(name);
+    }
+
+    public void put(long clothId, int[] palette) {
+        clothPaletteRepo.save(new ClothPalette(clothId, palette));
+        palettes.put(Math.toIntExact(clothId), palette);
+    }
+
+    public void forEach(BiConsumer<Integer, int[]> consumer) {
+        palettes.forEach(consumer);
+    }
+}
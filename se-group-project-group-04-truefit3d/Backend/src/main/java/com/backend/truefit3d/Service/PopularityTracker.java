@@ -0,0 +1,165 @@
+package com.backend.truefit3d.Service;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import com.backend.truefit3d.Repo.ClothPopularityRepo;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+// Engagement counters per garment. Recording an event is a LongAdder
+// increment, so request threads never contend on a lock or the database.
+//
+// A single flush thread drains the adders every FLUSH_INTERVAL_MS, adds the
+// deltas to cloth_popularity in one batch and folds them into the trending
+// scores. Trending scores decay with a half-life of HALF_LIFE_MS. The long
+// tail only lives in a fixed-size count-min sketch; exact entries are kept
+// for at most CANDIDATES garments, and the published top list is cut from
+// those with a bounded heap.
+@Component
+public class PopularityTracker {
+    public static final int FAVORITE = 0;
+    public static final int LIKE = 1;
+    public static final int TRY_ON = 2;
+    public static final int TOP_K = 100;
+
+    private static final Logger log = LoggerFactory.getLogger(PopularityTracker.class);
+    private static final double[] WEIGHTS = { 3, 2, 1 };
+    private static final long FLUSH_INTERVAL_MS = 5_000;
+    private static final double HALF_LIFE_MS = TimeUnit.HOURS.toMillis(6);
+    private static final int CANDIDATES = 4 * TOP_K;
+
+    @Autowired
+    private ClothPopularityRepo clothPopularityRepo;
+
+    private final Map<Integer, Counters> counters = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService flusher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "popularity-flusher");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    // Owned by the flush thread
+    private final CountMinSketch sketch = new CountMinSketch(4, 8192);
+    private final Map<Integer, Double> candidates = new HashMap<>();
+    // Deltas not yet saved, merged per garment so an outage costs memory in
+    // the number of garments, not in its length
+    private final Map<Integer, long[]> unsaved = new HashMap<>();
+    private long decayedAt = System.currentTimeMillis();
+
+    private volatile List<ClothScore> trending = List.of();
+
+    @PostConstruct
+    public void start() {
+        flusher.scheduleWithFixedDelay(this::flushQuietly, FLUSH_INTERVAL_MS, FLUSH_INTERVAL_MS, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        flusher.shutdown();
+        flusher.awaitTermination(10, TimeUnit.SECONDS);
+        flush();
+    }
+
+    public void record(int clothId, int event) {
+        Counters entry = counters.get(clothId);
+        if (entry == null) {
+            entry = counters.computeIfAbsent(clothId, id -> new Counters());
+        }
+        entry.adders[event].increment();
+    }
+
+    // Highest scoring garments first, at most TOP_K
+    public List<ClothScore> trending() {
+        return trending;
+    }
+
+    public synchronized void flush() {
+        long now = System.currentTimeMillis();
+        double decay = Math.pow(0.5, (now - decayedAt) / HALF_LIFE_MS);
+        decayedAt = now;
+        sketch.scale(decay);
+        candidates.replaceAll((clothId, score) -> score * decay);
+
+        for (Map.Entry<Integer, Counters> entry : counters.entrySet()) {
+            long[] delta = entry.getValue().drain(entry.getKey());
+            if (delta == null) {
+                continue;
+            }
+            unsaved.merge(entry.getKey(), delta, (saved, added) -> {
+                for (int i = 1; i < saved.length; i++) {
+                    saved[i] += added[i];
+                }
+                return saved;
+            });
+            double weight = 0;
+            for (int event = 0; event < WEIGHTS.length; event++) {
+                weight += WEIGHTS[event] * delta[event + 1];
+            }
+            candidates.put(entry.getKey(), sketch.add(entry.getKey(), weight));
+        }
+
+        List<ClothScore> top = top(CANDIDATES);
+        if (candidates.size() > CANDIDATES) {
+            candidates.clear();
+            top.forEach(score -> candidates.put(score.clothId(), score.score()));
+        }
+        trending = List.copyOf(top.subList(0, Math.min(TOP_K, top.size())));
+
+        // Deltas that fail to save are kept and retried with the next flush
+        if (!unsaved.isEmpty()) {
+            clothPopularityRepo.addAll(new ArrayList<>(unsaved.values()));
+            unsaved.clear();
+        }
+    }
+
+    private List<ClothScore> top(int k) {
+        PriorityQueue<ClothScore> heap = new PriorityQueue<>(k + 1, Comparator.comparingDouble(ClothScore::score));
+        candidates.forEach((clothId, score) -> {
+            if (heap.size() < k) {
+                heap.add(new ClothScore(clothId, score));
+            } else if (score > heap.peek().score()) {
+                heap.poll();
+                heap.add(new ClothScore(clothId, score));
+            }
+        });
+        List<ClothScore> result = new ArrayList<>(heap);
+        result.sort(Comparator.comparingDouble(ClothScore::score).reversed());
+        return result;
+    }
+
+    private void flushQuietly() {
+        try {
+            flush();
+        } catch (RuntimeException e) {
+            // Keep the schedule alive; unsaved deltas are retried
+            log.warn("Flushing popularity counters failed", e);
+        }
+    }
+
+    private static final class Counters {
+        private final LongAdder[] adders = { new LongAdder(), new LongAdder(), new LongAdder() };
+
+        // { clothId, favorites, likes, tryOns } or null when nothing happened
+        long[] drain(int clothId) {
+            long[] delta = { clothId, adders[FAVORITE].sumThenReset(), adders[LIKE].sumThenReset(),
+                    adders[TRY_ON].sumThenReset() };
+            return delta[1] == 0 && delta[2] == 0 && delta[3] == 0 ? null : delta;
+        }
+    }
+}
@@ -0,0 +1,125 @@
+package com.backend.truefit3d.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import org.roaringbitmap.RoaringBitmap;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import com.backend.truefit3d.Model.SharedWardrobe;
+import com.backend.truefit3d.Repo.SharedWardrobeRepo;
+
+import jakarta.annotation.PostConstruct;
+
+// Write-through, in-memory copy of the active SharedWardrobe rows. Usernames
+// are interned to dense int ids and each user keeps a bitmap of the users
+// they share with and of the users sharing with them, so authorization
+// checks are a map lookup plus a bitmap probe, and either side of a share
+// can be listed without a query.
+@Component
+public class SharingGraph {
+    @Autowired
+    private SharedWardrobeRepo sharedWardrobeRepo;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<String, Integer> userIds = new ConcurrentHashMap<>();
+    private final List<String> usernames = new ArrayList<>();
+    private final List<RoaringBitmap> viewersByOwner = new ArrayList<>();
+    private final List<RoaringBitmap> ownersByViewer = new ArrayList<>();
+
+    // Loaded before the web server starts so shared reads are never
+    // authorized against an empty graph
+    @PostConstruct
+    public void load() {
+        for (SharedWardrobe share : sharedWardrobeRepo.findAll()) {
+            if (Boolean.TRUE.equals(share.getIsActive())) {
+                share(share.getOwnerUsername(), share.getSharedWithUsername());
+            }
+        }
+    }
+
+    public boolean isShared(String ownerUsername, String viewerUsername) {
+        Integer owner = userIds.get(ownerUsername);
+        Integer viewer = userIds.get(viewerUsername);
+        if (owner == null || viewer == null) {
+            return false;
+        }
+        lock.readLock().lock();
+        try {
+            return viewersByOwner.get(owner).contains(viewer);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Users who can see ownerUsername's wardrobe
+    public List<String> viewersOf(String ownerUsername) {
+        return neighbours(viewersByOwner, ownerUsername);
+    }
+
+    // Users whose wardrobes viewerUsername can see
+    public List<String> ownersOf(String viewerUsername) {
+        return neighbours(ownersByViewer, viewerUsername);
+    }
+
+    private List<String> neighbours(List<RoaringBitmap> edges, String username) {
+        Integer id = userIds.get(username);
+        if (id == null) {
+            return List.of();
+        }
+        lock.readLock().lock();
+        try {
+            List<String> result = new ArrayList<>();
+            edges.get(id).forEach((int other) -> result.add(usernames.get(other)));
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public void share(String ownerUsername, String viewerUsername) {
+        lock.writeLock().lock();
+        try {
+            int owner = intern(ownerUsername);
+            int viewer = intern(viewerUsername);
+            viewersByOwner.get(owner).add(viewer);
+            ownersByViewer.get(viewer).add(owner);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void unshare(String ownerUsername, String viewerUsername) {
+        Integer owner = userIds.get(ownerUsername);
+        Integer viewer = userIds.get(viewerUsername);
+        if (owner == null || viewer == null) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            viewersByOwner.get(owner).remove(viewer);
+            ownersByViewer.get(viewer).remove(owner);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Caller must hold the write lock
+    private int intern(String username) {
+        Integer id = userIds.get(username);
+        if (id != null) {
+            return id;
+        }
+        int next = viewersByOwner.size();
+        viewersByOwner.add(new RoaringBitmap());
+        ownersByViewer.add(new RoaringBitmap());
+        usernames.add(username);
+        userIds.put(username, next);
+        return next;
+    }
+}
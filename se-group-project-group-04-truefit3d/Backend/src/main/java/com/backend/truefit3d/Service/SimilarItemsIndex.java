@@ -0,0 +1,321 @@
+package com.backend.truefit3d.Service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Random;
+import java.util.function.IntPredicate;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import org.roaringbitmap.IntConsumer;
+import org.roaringbitmap.RoaringBitmap;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import com.backend.truefit3d.Model.ClothSummary;
+import com.backend.truefit3d.Repo.ClothCatalogRepo;
+
+// "More like this" over garment features. Every garment is a small vector:
+// one-hot type, CIELAB color (the photo's dominant color once known, else the
+// typed one), and hashed one-hot slots for brand and material. Vectors are
+// bucketed by p-stable LSH (TABLES tables of HASHES_PER_TABLE quantized random
+// projections each), so a query only looks at garments sharing a bucket with
+// it. Candidates are re-ranked by exact distance, which also adds the size
+// difference normalized by the size range seen for that size metric; sizes
+// stay out of the hashed vector because that range moves as garments are
+// added.
+@Component
+public class SimilarItemsIndex {
+    private static final int DIMENSIONS = 22;
+    private static final int COLOR = 3;
+    private static final int BRAND = 6;
+    private static final int MATERIAL = 14;
+    private static final int SLOTS = 8;
+
+    private static final int TABLES = 10;
+    private static final int HASHES_PER_TABLE = 4;
+    private static final float BUCKET_WIDTH = 0.6f;
+    // Catalogs this small are scanned exactly, which stays well under a
+    // millisecond and is exact where buckets are still sparse
+    private static final int EXACT_SCAN_LIMIT = 8192;
+    // Multi-probe until there are this many candidates per result
+    private static final int MIN_CANDIDATES = 64;
+    // Garments sharing every feature land in one bucket; re-ranking a
+    // thousand of them is enough
+    private static final int MAX_CANDIDATES = 1024;
+    private static final float SIZE_WEIGHT = 0.5f;
+
+    @Autowired
+    private ClothCatalogRepo clothCatalogRepo;
+
+    @Autowired
+    private PaletteStore paletteStore;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final float[][][] projections = new float[TABLES][HASHES_PER_TABLE][DIMENSIONS];
+    private final float[][] offsets = new float[TABLES][HASHES_PER_TABLE];
+    private final List<Map<Long, int[]>> buckets = new ArrayList<>();
+    private final Map<Long, Integer> rowsById = new HashMap<>();
+    private final Map<String, double[]> sizeRanges = new HashMap<>();
+    private float[] vectors = new float[1024 * DIMENSIONS];
+    private long[] ids = new long[1024];
+    private double[] sizes = new double[1024];
+    private String[] sizeMetrics = new String[1024];
+    private int rows;
+
+    public SimilarItemsIndex() {
+        Random random = new Random(42);
+        for (int table = 0; table < TABLES; table++) {
+            for (int hash = 0; hash < HASHES_PER_TABLE; hash++) {
+                for (int d = 0; d < DIMENSIONS; d++) {
+                    projections[table][hash][d] = (float) random.nextGaussian();
+                }
+                offsets[table][hash] = random.nextFloat() * BUCKET_WIDTH;
+            }
+            buckets.add(new HashMap<>());
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        clothCatalogRepo.streamAfter(null, 0, this::add);
+    }
+
+    public void add(ClothSummary item) {
+        float[] vector = vector(item);
+        lock.writeLock().lock();
+        try {
+            if (!rowsById.containsKey(item.getId())) {
+                insert(item, vector);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Re-indexes a garment whose features changed, e.g. once its photo
+    // palette is known
+    public void update(ClothSummary item) {
+        float[] vector = vector(item);
+        lock.writeLock().lock();
+        try {
+            Integer row = rowsById.get(item.getId());
+            if (row == null) {
+                insert(item, vector);
+                return;
+            }
+            float[] old = Arrays.copyOfRange(vectors, row * DIMENSIONS, (row + 1) * DIMENSIONS);
+            for (int table = 0; table < TABLES; table++) {
+                remove(buckets.get(table).get(key(hashes(table, old))), row);
+            }
+            System.arraycopy(vector, 0, vectors, row * DIMENSIONS, DIMENSIONS);
+            bucket(row, vector);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Caller must hold the write lock
+    private void insert(ClothSummary item, float[] vector) {
+        if (rows == ids.length) {
+            int capacity = rows * 2;
+            vectors = Arrays.copyOf(vectors, capacity * DIMENSIONS);
+            ids = Arrays.copyOf(ids, capacity);
+            sizes = Arrays.copyOf(sizes, capacity);
+            sizeMetrics = Arrays.copyOf(sizeMetrics, capacity);
+        }
+        int row = rows++;
+        System.arraycopy(vector, 0, vectors, row * DIMENSIONS, DIMENSIONS);
+        ids[row] = item.getId();
+        sizes[row] = item.getSize();
+        sizeMetrics[row] = item.getSizeMetrics();
+        rowsById.put(item.getId(), row);
+        double[] range = sizeRanges.computeIfAbsent(String.valueOf(item.getSizeMetrics()),
+                m -> new double[] { item.getSize(), item.getSize() });
+        range[0] = Math.min(range[0], item.getSize());
+        range[1] = Math.max(range[1], item.getSize());
+        bucket(row, vector);
+    }
+
+    // Caller must hold the write lock
+    private void bucket(int row, float[] vector) {
+        for (int table = 0; table < TABLES; table++) {
+            Map<Long, int[]> tableBuckets = buckets.get(table);
+            long key = key(hashes(table, vector));
+            tableBuckets.put(key, append(tableBuckets.get(key), row));
+        }
+    }
+
+    // Up to k nearest available garments, closest first; empty for unknown ids
+    public List<ClothScore> similar(long clothId, int k, IntPredicate available) {
+        lock.readLock().lock();
+        try {
+            Integer row = rowsById.get(clothId);
+            if (row == null) {
+                return List.of();
+            }
+            float[] query = Arrays.copyOfRange(vectors, row * DIMENSIONS, (row + 1) * DIMENSIONS);
+
+            String metric = sizeMetrics[row];
+            double[] range = metric == null ? null : sizeRanges.get(metric);
+            double spread = range == null ? 0 : range[1] - range[0];
+
+            // Farthest of the k nearest on top
+            PriorityQueue<Neighbor> heap = new PriorityQueue<>(k + 1,
+                    Comparator.comparingDouble(Neighbor::distance).reversed());
+            IntConsumer rank = other -> {
+                if (other == row || !available.test(Math.toIntExact(ids[other]))) {
+                    return;
+                }
+                double sizeTerm = 1;
+                if (metric != null && metric.equals(sizeMetrics[other])) {
+                    sizeTerm = spread == 0 ? 0 : Math.abs(sizes[row] - sizes[other]) / spread;
+                }
+                double distance = distance(query, other) + SIZE_WEIGHT * sizeTerm * sizeTerm;
+                if (heap.size() < k) {
+                    heap.add(new Neighbor(other, distance));
+                } else if (distance < heap.peek().distance()) {
+                    heap.poll();
+                    heap.add(new Neighbor(other, distance));
+                }
+            };
+            if (rows <= EXACT_SCAN_LIMIT) {
+                for (int other = 0; other < rows; other++) {
+                    rank.accept(other);
+                }
+            } else {
+                candidates(query, k).forEach(rank);
+            }
+
+            List<ClothScore> result = new ArrayList<>(heap.size());
+            for (Neighbor neighbor : heap) {
+                result.add(new ClothScore(Math.toIntExact(ids[neighbor.row()]), 1 / (1 + Math.sqrt(neighbor.distance()))));
+            }
+            result.sort(Comparator.comparingDouble(ClothScore::score).reversed());
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Rows sharing a bucket with the query in any table. Caller must hold the lock
+    private RoaringBitmap candidates(float[] query, int k) {
+        RoaringBitmap candidates = new RoaringBitmap();
+        int[][] hashes = new int[TABLES][];
+        for (int table = 0; table < TABLES; table++) {
+            hashes[table] = hashes(table, query);
+            if (candidates.getCardinality() < MAX_CANDIDATES) {
+                addBucket(candidates, table, hashes[table]);
+            }
+        }
+        // Multi-probe: also look one step away along every projection
+        for (int table = 0; table < TABLES && candidates.getCardinality() < MIN_CANDIDATES * k; table++) {
+            for (int hash = 0; hash < HASHES_PER_TABLE; hash++) {
+                for (int step = -1; step <= 1; step += 2) {
+                    hashes[table][hash] += step;
+                    addBucket(candidates, table, hashes[table]);
+                    hashes[table][hash] -= step;
+                }
+            }
+        }
+        return candidates;
+    }
+
+    // Squared distance of a row's vector to the query. Caller must hold the lock
+    private double distance(float[] query, int other) {
+        float sum = 0;
+        int base = other * DIMENSIONS;
+        for (int d = 0; d < DIMENSIONS; d++) {
+            float diff = query[d] - vectors[base + d];
+            sum += diff * diff;
+        }
+        return sum;
+    }
+
+    // Caller must hold the lock
+    private void addBucket(RoaringBitmap candidates, int table, int[] hashes) {
+        int[] bucket = buckets.get(table).get(key(hashes));
+        if (bucket != null) {
+            candidates.addN(bucket, 1, bucket[0]);
+        }
+    }
+
+    private int[] hashes(int table, float[] vector) {
+        int[] hashes = new int[HASHES_PER_TABLE];
+        for (int hash = 0; hash < HASHES_PER_TABLE; hash++) {
+            float dot = offsets[table][hash];
+            for (int d = 0; d < DIMENSIONS; d++) {
+                dot += projections[table][hash][d] * vector[d];
+            }
+            hashes[hash] = (int) Math.floor(dot / BUCKET_WIDTH);
+        }
+        return hashes;
+    }
+
+    private static long key(int[] hashes) {
+        long key = 17;
+        for (int hash : hashes) {
+            key = key * 1_000_003 + hash;
+        }
+        return key;
+    }
+
+    private static void remove(int[] bucket, int row) {
+        for (int i = 1; i <= bucket[0]; i++) {
+            if (bucket[i] == row) {
+                bucket[i] = bucket[bucket[0]--];
+                return;
+            }
+        }
+    }
+
+    // Buckets are int arrays whose first slot holds the number of rows
+    private static int[] append(int[] bucket, int row) {
+        if (bucket == null) {
+            bucket = new int[4];
+        } else if (bucket[0] + 1 == bucket.length) {
+            bucket = Arrays.copyOf(bucket, bucket.length * 2);
+        }
+        bucket[++bucket[0]] = row;
+        return bucket;
+    }
+
+    private float[] vector(ClothSummary item) {
+        float[] vector = new float[DIMENSIONS];
+        int type = ClothCatalogRepo.TYPES.indexOf(item.getType());
+        if (type >= 0) {
+            vector[type] = 1f;
+        }
+        int rgb = paletteStore.dominant(item.getId());
+        if (rgb < 0) {
+            rgb = ColorSpace.rgb(item.getColor());
+        }
+        // Unknown colors sit at mid grey rather than at black
+        float[] lab = rgb < 0 ? new float[] { 50f, 0f, 0f } : ColorSpace.lab(rgb);
+        vector[COLOR] = lab[0] / 100f;
+        vector[COLOR + 1] = lab[1] / 100f;
+        vector[COLOR + 2] = lab[2] / 100f;
+        if (item.getBrand() != null) {
+            vector[BRAND + slot(item.getBrand())] = 0.7f;
+        }
+        if (item.getMaterial() != null) {
+            vector[MATERIAL + slot(item.getMaterial())] = 0.7f;
+        }
+        return vector;
+    }
+
+    private static int slot(String value) {
+        return Math.floorMod(value.trim().toLowerCase(Locale.ROOT).hashCode(), SLOTS);
+    }
+
+    private record Neighbor(int row, double distance) {
+    }
+}
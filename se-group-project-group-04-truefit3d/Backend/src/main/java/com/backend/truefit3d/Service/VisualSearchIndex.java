@@ -0,0 +1,81 @@
+package com.backend.truefit3d.Service;
+
+import java.awt.image.BufferedImage;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import com.backend.truefit3d.Model.ClothDescriptor;
+import com.backend.truefit3d.Repo.ClothDescriptorRepo;
+
+import jakarta.annotation.PostConstruct;
+
+// Query-by-image over each user's wardrobe. Uploaded photos are described
+// off the request thread by ImageAnalyzer (see ImageDescriptor); the
+// descriptor is stored in cloth_descriptors and added to the owner's
+// vantage-point tree. Searches are always scoped to one wardrobe, so every
+// owner has a tree of their own, and a search only describes the query
+// photo and walks that tree.
+@Component
+public class VisualSearchIndex {
+    @Autowired
+    private ClothDescriptorRepo clothDescriptorRepo;
+
+    private final Map<String, VpTree> trees = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    public void load() {
+        Map<String, List<ClothDescriptor>> byOwner = new HashMap<>();
+        for (ClothDescriptor row : clothDescriptorRepo.findAll()) {
+            byOwner.computeIfAbsent(row.getOwnerUsername(), o -> new ArrayList<>()).add(row);
+        }
+        byOwner.forEach((owner, rows) -> {
+            int[] ids = new int[rows.size()];
+            float[][] descriptors = new float[rows.size()][];
+            for (int i = 0; i < ids.length; i++) {
+                ids[i] = Math.toIntExact(rows.get(i).getClothId());
+                descriptors[i] = deserialize(rows.get(i).getDescriptor());
+            }
+            trees.put(owner, VpTree.of(ids, descriptors));
+        });
+    }
+
+    public void add(long clothId, String ownerUsername, BufferedImage image) {
+        float[] descriptor = ImageDescriptor.of(image);
+        clothDescriptorRepo.save(new ClothDescriptor(clothId, ownerUsername, serialize(descriptor)));
+        trees.compute(ownerUsername,
+                (owner, tree) -> (tree == null ? VpTree.empty() : tree).with(Math.toIntExact(clothId), descriptor));
+    }
+
+    // Up to k garments of the owner's wardrobe that look most like the image,
+    // best first, with scores in [0, 1]
+    public List<ClothScore> search(BufferedImage image, String ownerUsername, int k) {
+        VpTree tree = trees.get(ownerUsername);
+        if (tree == null) {
+            return List.of();
+        }
+        List<ClothScore> result = new ArrayList<>();
+        for (VpTree.Match match : tree.nearest(ImageDescriptor.of(image), k)) {
+            result.add(new ClothScore(match.clothId(), 1 - match.distance() / ImageDescriptor.MAX_DISTANCE));
+        }
+        return result;
+    }
+
+    private static byte[] serialize(float[] descriptor) {
+        ByteBuffer buffer = ByteBuffer.allocate(descriptor.length * Float.BYTES);
+        buffer.asFloatBuffer().put(descriptor);
+        return buffer.array();
+    }
+
+    private static float[] deserialize(byte[] bytes) {
+        float[] descriptor = new float[bytes.length / Float.BYTES];
+        ByteBuffer.wrap(bytes).asFloatBuffer().get(descriptor);
+        return descriptor;
+    }
+}
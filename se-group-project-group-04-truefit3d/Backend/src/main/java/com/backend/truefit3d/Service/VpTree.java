@@ -0,0 +1,124 @@
+package com.backend.truefit3d.Service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+
+// Immutable vantage-point tree over image descriptors. Every node splits the
+// points below it by their distance to the node's vantage point at the
+// median, so a k-nearest search can skip a whole side whenever the triangle
+// inequality shows nothing there is closer than the current k-th match.
+// Inserting returns a rebuilt tree, which readers can swap in atomically.
+public final class VpTree {
+    private static final VpTree EMPTY = new VpTree(new int[0], new float[0][]);
+
+    private final int[] ids;
+    private final float[][] points;
+    private final Node root;
+
+    private VpTree(int[] ids, float[][] points) {
+        this.ids = ids;
+        this.points = points;
+        int[] order = new int[ids.length];
+        for (int i = 0; i < order.length; i++) {
+            order[i] = i;
+        }
+        this.root = build(order, 0, order.length);
+    }
+
+    public static VpTree empty() {
+        return EMPTY;
+    }
+
+    // ids must be distinct
+    public static VpTree of(int[] ids, float[][] points) {
+        return new VpTree(ids.clone(), points.clone());
+    }
+
+    public int size() {
+        return ids.length;
+    }
+
+    // A tree with the point added, or replaced when the id is already present
+    public VpTree with(int id, float[] point) {
+        for (int i = 0; i < ids.length; i++) {
+            if (ids[i] == id) {
+                float[][] replaced = points.clone();
+                replaced[i] = point;
+                return new VpTree(ids, replaced);
+            }
+        }
+        int[] grownIds = Arrays.copyOf(ids, ids.length + 1);
+        float[][] grownPoints = Arrays.copyOf(points, points.length + 1);
+        grownIds[ids.length] = id;
+        grownPoints[points.length] = point;
+        return new VpTree(grownIds, grownPoints);
+    }
+
+    // Up to k nearest points, closest first
+    public List<Match> nearest(float[] query, int k) {
+        PriorityQueue<Match> heap = new PriorityQueue<>(k + 1, Comparator.comparingDouble(Match::distance).reversed());
+        search(root, query, k, heap);
+        List<Match> result = new ArrayList<>(heap);
+        result.sort(Comparator.comparingDouble(Match::distance));
+        return result;
+    }
+
+    private void search(Node node, float[] query, int k, PriorityQueue<Match> heap) {
+        if (node == null) {
+            return;
+        }
+        float distance = ImageDescriptor.distance(query, points[node.point]);
+        if (heap.size() < k) {
+            heap.add(new Match(ids[node.point], distance));
+        } else if (distance < heap.peek().distance()) {
+            heap.poll();
+            heap.add(new Match(ids[node.point], distance));
+        }
+        // Nearer side first; the far side only while it can still hold a closer point
+        Node near = distance < node.radius ? node.inside : node.outside;
+        Node far = near == node.inside ? node.outside : node.inside;
+        search(near, query, k, heap);
+        if (heap.size() < k || Math.abs(distance - node.radius) < heap.peek().distance()) {
+            search(far, query, k, heap);
+        }
+    }
+
+    // Builds over order[from, to); the vantage point is the first entry
+    private Node build(int[] order, int from, int to) {
+        if (from >= to) {
+            return null;
+        }
+        int vantage = order[from];
+        if (to - from == 1) {
+            return new Node(vantage, 0f, null, null);
+        }
+        int count = to - from - 1;
+        float[] distances = new float[count];
+        Integer[] rest = new Integer[count];
+        for (int i = 0; i < count; i++) {
+            rest[i] = order[from + 1 + i];
+            distances[i] = ImageDescriptor.distance(points[vantage], points[rest[i]]);
+        }
+        Integer[] byDistance = new Integer[count];
+        for (int i = 0; i < count; i++) {
+            byDistance[i] = i;
+        }
+        Arrays.sort(byDistance, Comparator.comparingDouble(i -> distances[i]));
+        for (int i = 0; i < count; i++) {
+            order[from + 1 + i] = rest[byDistance[i]];
+        }
+        int median = from + 1 + count / 2;
+        float radius = distances[byDistance[count / 2]];
+        return new Node(vantage, radius, build(order, from + 1, median), build(order, median, to));
+    }
+
+    public record Match(int clothId, float distance) {
+    }
+
+    // inside holds points no farther than radius from the vantage point
+    private record Node(int point, float radius, Node inside, Node outside) {
+    }
+}
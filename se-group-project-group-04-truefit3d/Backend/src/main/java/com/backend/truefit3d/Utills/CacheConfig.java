@@ -15,7 +15,7 @@ public class CacheConfig {
 
     @Bean
     public CacheManager cacheManager() {
-        CaffeineCacheManager cacheManager = new CaffeineCacheManager("otpCache");
+        CaffeineCacheManager cacheManager = new CaffeineCacheManager("otpCache", "sharedWardrobeCache", "favoritesCache");
         cacheManager.setCaffeine(caffeineCacheBuilder());
         return cacheManager;
     }
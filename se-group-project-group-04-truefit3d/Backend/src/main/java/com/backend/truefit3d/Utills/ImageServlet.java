@@ -0,0 +1,292 @@
+package com.backend.truefit3d.Utills;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.math.BigInteger;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.springframework.web.cors.CorsConfiguration;
+import org.springframework.web.cors.CorsConfigurationSource;
+import org.springframework.web.cors.CorsProcessor;
+import org.springframework.web.cors.CorsUtils;
+import org.springframework.web.cors.DefaultCorsProcessor;
+
+import com.backend.truefit3d.Service.BlobStore;
+import com.backend.truefit3d.Service.ImageCache;
+import com.backend.truefit3d.Service.ImageDerivatives;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import jakarta.servlet.http.HttpServlet;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+// Serves garment photos from the BlobStore, outside Spring MVC and the
+// security chain: /uploads/<name> for originals and /images/<name>?size= for
+// derivatives. Every URL must carry a valid ImageUrlSigner signature, checked
+// before any file access. Hot photos are answered from the off-heap
+// ImageCache; other large local files go out through Tomcat's sendfile when
+// the connector supports it, else through a FileChannel transfer, and blobs
+// without a local file are streamed. Handles a single byte range, strong ETags
+// and If-None-Match. Content-addressed names never change content, so those
+// are cacheable until their URL expires.
+public class ImageServlet extends HttpServlet {
+    private static final long serialVersionUID = 1L;
+    private static final Pattern CONTENT_ADDRESSED = Pattern.compile("([0-9a-f]{64})(\\.[a-z0-9]{1,8})?");
+    private static final Pattern RANGE = Pattern.compile("bytes=(\\d*)-(\\d*)");
+    // Content-addressed names never change content; other names may
+    private static final long IMMUTABLE_MAX_AGE = 31536000;
+    private static final long MAX_AGE = 86400;
+    // Below this a plain write is cheaper than handing the file to sendfile
+    private static final long SENDFILE_MIN_BYTES = 48 * 1024;
+    private static final int ETAG_CACHE_SIZE = 10_000;
+
+    // HttpServlet is Serializable, but this servlet is registered as a bean
+    // and never serialized, so none of its collaborators are
+    private final transient BlobStore blobStore;
+    private final transient ImageDerivatives imageDerivatives;
+    private final transient ImageCache imageCache;
+    private final transient ImageUrlSigner imageUrlSigner;
+    private final transient CorsConfigurationSource corsConfigurationSource;
+    private final transient CorsProcessor corsProcessor = new DefaultCorsProcessor();
+    // Content hashes of files whose name does not carry one
+    private final transient Cache<String, FileTag> fileTags = Caffeine.newBuilder().maximumSize(ETAG_CACHE_SIZE).build();
+
+    public ImageServlet(BlobStore blobStore, ImageDerivatives imageDerivatives, ImageCache imageCache,
+            ImageUrlSigner imageUrlSigner, CorsConfigurationSource corsConfigurationSource) {
+        this.blobStore = blobStore;
+        this.imageDerivatives = imageDerivatives;
+        this.imageCache = imageCache;
+        this.imageUrlSigner = imageUrlSigner;
+        this.corsConfigurationSource = corsConfigurationSource;
+    }
+
+    @Override
+    protected void service(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        CorsConfiguration cors = corsConfigurationSource.getCorsConfiguration(request);
+        if (!corsProcessor.processRequest(cors, request, response) || CorsUtils.isPreFlightRequest(request)) {
+            return;
+        }
+        String method = request.getMethod();
+        if (!method.equals("GET") && !method.equals("HEAD")) {
+            response.setHeader("Allow", "GET, HEAD, OPTIONS");
+            response.setStatus(HttpServletResponse.SC_METHOD_NOT_ALLOWED);
+            return;
+        }
+
+        String pathInfo = request.getPathInfo();
+        if (pathInfo == null || pathInfo.length() < 2 || pathInfo.indexOf('/', 1) >= 0) {
+            response.setStatus(HttpServletResponse.SC_NOT_FOUND);
+            return;
+        }
+        String fileName = pathInfo.substring(1);
+        // One signature covers every size of a photo
+        if (!imageUrlSigner.verify(fileName, request.getParameter("expires"), request.getParameter("sig"))) {
+            response.setStatus(HttpServletResponse.SC_FORBIDDEN);
+            return;
+        }
+        boolean sized = request.getServletPath().equals("/images");
+        String key;
+        if (sized) {
+            String size = request.getParameter("size") == null ? "full" : request.getParameter("size");
+            int width;
+            try {
+                width = request.getParameter("width") == null ? 0 : Integer.parseInt(request.getParameter("width"));
+            } catch (NumberFormatException e) {
+                width = -1;
+            }
+            if (!ImageDerivatives.SIZES.contains(size) || width < 0) {
+                badRequest(response, "Invalid image size");
+                return;
+            }
+            key = imageDerivatives.resolve(fileName, size, width);
+        } else {
+            key = imageDerivatives.original(fileName);
+        }
+        BlobStore.Blob blob = key == null ? null : blobStore.stat(key);
+        if (blob == null) {
+            response.setStatus(HttpServletResponse.SC_NOT_FOUND);
+            return;
+        }
+
+        boolean derivative = ImageDerivatives.isDerivative(key);
+        Matcher contentAddressed = CONTENT_ADDRESSED.matcher(fileName);
+        String etag;
+        if (contentAddressed.matches()) {
+            String hash = contentAddressed.group(1);
+            etag = '"' + (derivative ? hash + "-" + key.substring(0, key.indexOf('/')) : hash) + '"';
+        } else {
+            etag = fileTag(blob);
+        }
+        response.setHeader("ETag", etag);
+        response.setHeader("Accept-Ranges", "bytes");
+        // The original stands in until derivatives exist, so it must be revalidated
+        if (sized && !derivative) {
+            response.setHeader("Cache-Control", "no-cache");
+        } else {
+            // Nothing may be served from a cache after its URL has expired
+            long maxAge = Math.min(contentAddressed.matches() ? IMMUTABLE_MAX_AGE : MAX_AGE,
+                    imageUrlSigner.secondsLeft(request.getParameter("expires")));
+            response.setHeader("Cache-Control", "public, max-age=" + maxAge
+                    + (contentAddressed.matches() ? ", immutable" : ""));
+        }
+        if (matches(request.getHeader("If-None-Match"), etag)) {
+            response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+            return;
+        }
+        String contentType = getServletContext().getMimeType(key.substring(key.lastIndexOf('/') + 1));
+        response.setContentType(contentType == null ? "application/octet-stream" : contentType);
+
+        long length = blob.size();
+        long start = 0;
+        long end = length - 1;
+        String range = request.getHeader("Range");
+        String ifRange = request.getHeader("If-Range");
+        Matcher bytes = range == null ? null : RANGE.matcher(range);
+        // Anything but one well-formed range gets the whole file
+        if (bytes != null && bytes.matches() && !(bytes.group(1).isEmpty() && bytes.group(2).isEmpty())
+                && ordered(bytes.group(1), bytes.group(2)) && (ifRange == null || ifRange.equals(etag))) {
+            if (bytes.group(1).isEmpty()) {
+                // A zero-length suffix leaves start at length, which is unsatisfiable
+                start = length - Math.min(length, position(bytes.group(2)));
+            } else {
+                start = position(bytes.group(1));
+                if (!bytes.group(2).isEmpty()) {
+                    end = Math.min(end, position(bytes.group(2)));
+                }
+            }
+            if (start >= length) {
+                response.setHeader("Content-Range", "bytes */" + length);
+                response.setStatus(HttpServletResponse.SC_REQUESTED_RANGE_NOT_SATISFIABLE);
+                return;
+            }
+            response.setStatus(HttpServletResponse.SC_PARTIAL_CONTENT);
+            response.setHeader("Content-Range", "bytes " + start + "-" + end + "/" + length);
+        }
+
+        long count = end - start + 1;
+        response.setContentLengthLong(count);
+        if (method.equals("HEAD") || count == 0) {
+            return;
+        }
+        ImageCache.Entry cached = imageCache.acquire(blob);
+        if (cached != null) {
+            try {
+                cached.writeTo(response.getOutputStream(), start, count);
+            } finally {
+                cached.release();
+            }
+            return;
+        }
+        if (blob.path() == null) {
+            try (InputStream in = blobStore.open(key)) {
+                in.skipNBytes(start);
+                copy(in, response.getOutputStream(), count);
+            }
+            return;
+        }
+        if (count >= SENDFILE_MIN_BYTES && Boolean.TRUE.equals(request.getAttribute("org.apache.tomcat.sendfile.support"))) {
+            request.setAttribute("org.apache.tomcat.sendfile.filename", blob.path().toAbsolutePath().toString());
+            request.setAttribute("org.apache.tomcat.sendfile.start", start);
+            request.setAttribute("org.apache.tomcat.sendfile.end", end + 1);
+            return;
+        }
+        try (FileChannel channel = FileChannel.open(blob.path())) {
+            WritableByteChannel out = Channels.newChannel(response.getOutputStream());
+            for (long position = start; position <= end;) {
+                long sent = channel.transferTo(position, end + 1 - position, out);
+                if (sent <= 0) {
+                    break; // The file shrank underneath us
+                }
+                position += sent;
+            }
+        }
+    }
+
+    // Strong ETag from the blob's SHA-256, recomputed when the blob changes
+    private String fileTag(BlobStore.Blob blob) throws IOException {
+        FileTag tag = fileTags.getIfPresent(blob.key());
+        if (tag == null || tag.modified() != blob.modified() || tag.size() != blob.size()) {
+            tag = new FileTag(blob.modified(), blob.size(), '"' + sha256(blob.key()) + '"');
+            fileTags.put(blob.key(), tag);
+        }
+        return tag.etag();
+    }
+
+    private String sha256(String key) throws IOException {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new RuntimeException(e);
+        }
+        try (InputStream in = blobStore.open(key)) {
+            byte[] buffer = new byte[64 * 1024];
+            for (int n = in.read(buffer); n >= 0; n = in.read(buffer)) {
+                digest.update(buffer, 0, n);
+            }
+        }
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    private static void copy(InputStream in, OutputStream out, long count) throws IOException {
+        byte[] buffer = new byte[64 * 1024];
+        while (count > 0) {
+            int n = in.read(buffer, 0, (int) Math.min(buffer.length, count));
+            if (n < 0) {
+                break; // The blob shrank underneath us
+            }
+            out.write(buffer, 0, n);
+            count -= n;
+        }
+    }
+
+    // Positions too large for a long are past the end of any file
+    private static long position(String digits) {
+        try {
+            return Long.parseLong(digits);
+        } catch (NumberFormatException e) {
+            return Long.MAX_VALUE;
+        }
+    }
+
+    // A range whose last byte comes before its first is invalid, not
+    // unsatisfiable, and the Range header is then ignored (RFC 9110 14.2)
+    private static boolean ordered(String first, String last) {
+        return first.isEmpty() || last.isEmpty() || new BigInteger(first).compareTo(new BigInteger(last)) <= 0;
+    }
+
+    // Weak comparison, as If-None-Match requires
+    private static boolean matches(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        for (String candidate : ifNoneMatch.split(",")) {
+            candidate = candidate.trim();
+            if (candidate.startsWith("W/")) {
+                candidate = candidate.substring(2);
+            }
+            if (candidate.equals("*") || candidate.equals(etag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static void badRequest(HttpServletResponse response, String message) throws IOException {
+        response.setStatus(HttpServletResponse.SC_BAD_REQUEST);
+        response.setContentType("text/plain;charset=UTF-8");
+        response.getWriter().write(message);
+    }
+
+    private record FileTag(long modified, long size, String etag) {
+    }
+}
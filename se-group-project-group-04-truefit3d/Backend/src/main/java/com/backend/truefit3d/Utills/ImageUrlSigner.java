@@ -0,0 +1,93 @@
+package com.backend.truefit3d.Utills;
+
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.util.Arrays;
+import java.util.Base64;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+// Expiring, HMAC-signed photo URLs. Garments store only a storage key; read
+// responses turn it into <base>/uploads/<key>?expires=..&sig=.. and the image
+// servlet checks the signature without a token or a database lookup. Expiry
+// is rounded up to the next WINDOW, so a photo keeps the same URL, and stays
+// in browser and CDN caches, for a whole window.
+@Component
+public class ImageUrlSigner {
+    private static final long WINDOW_SECONDS = 3600;
+    // URLs stay valid for at least this long after they are handed out
+    private static final long TTL_SECONDS = 3600;
+    private static final int SIGNATURE_BYTES = 16;
+
+    private final SecretKeySpec key;
+    private final String baseUrl;
+
+    public ImageUrlSigner(@Value("${image.url.secret:${jwt.secret}}") String secret,
+            @Value("${image.base-url:http://localhost:8000}") String baseUrl) {
+        this.key = new SecretKeySpec(("image-url:" + secret).getBytes(StandardCharsets.UTF_8), "HmacSHA256");
+        this.baseUrl = baseUrl;
+    }
+
+    // Signed URL of a stored photo; null stays null
+    public String url(String imgUrl) {
+        if (imgUrl == null) {
+            return null;
+        }
+        String storageKey = storageKey(imgUrl);
+        long expires = (now() + TTL_SECONDS) / WINDOW_SECONDS * WINDOW_SECONDS + WINDOW_SECONDS;
+        return baseUrl + "/uploads/" + storageKey + "?expires=" + expires + "&sig=" + sign(storageKey, expires);
+    }
+
+    public boolean verify(String storageKey, String expires, String signature) {
+        if (expires == null || signature == null) {
+            return false;
+        }
+        long expiresAt;
+        try {
+            expiresAt = Long.parseLong(expires);
+        } catch (NumberFormatException e) {
+            return false;
+        }
+        if (expiresAt < now()) {
+            return false;
+        }
+        byte[] expected = sign(storageKey, expiresAt).getBytes(StandardCharsets.US_ASCII);
+        return MessageDigest.isEqual(expected, signature.getBytes(StandardCharsets.US_ASCII));
+    }
+
+    // Seconds until a verified URL's expires value passes
+    public long secondsLeft(String expires) {
+        return Math.max(0, Long.parseLong(expires) - now());
+    }
+
+    // Changes whenever freshly signed URLs change, for ETags of responses that carry them
+    public long window() {
+        return (now() + TTL_SECONDS) / WINDOW_SECONDS;
+    }
+
+    // Rows written before photos were stored by key hold a full /uploads/ URL
+    public static String storageKey(String imgUrl) {
+        int slash = imgUrl.lastIndexOf('/');
+        return slash < 0 ? imgUrl : imgUrl.substring(slash + 1);
+    }
+
+    private String sign(String storageKey, long expires) {
+        try {
+            Mac mac = Mac.getInstance("HmacSHA256");
+            mac.init(key);
+            byte[] digest = mac.doFinal((storageKey + ":" + expires).getBytes(StandardCharsets.UTF_8));
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(Arrays.copyOf(digest, SIGNATURE_BYTES));
+        } catch (GeneralSecurityException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    private static long now() {
+        return System.currentTimeMillis() / 1000;
+    }
+}
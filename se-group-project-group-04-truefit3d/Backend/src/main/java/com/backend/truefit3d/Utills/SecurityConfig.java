@@ -5,6 +5,7 @@ import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
+import org.springframework.security.config.annotation.web.configuration.WebSecurityCustomizer;
 import org.springframework.security.config.annotation.web.configurers.AbstractHttpConfigurer;
 import org.springframework.security.config.http.SessionCreationPolicy;
 import org.springframework.security.web.AuthenticationEntryPoint;
@@ -35,7 +36,6 @@ public class SecurityConfig {
             .authorizeHttpRequests(request -> request
                 .requestMatchers("/").permitAll()
                 .requestMatchers("/register", "/login", "/login/oauth2/**", "/oauth2/**", "/complete-oauth2-profile").permitAll()
-                .requestMatchers("/uploads/**").permitAll()
                 .requestMatchers("/admin/**").hasRole("ADMIN")
                 .requestMatchers("/**").hasRole("USER")
                 .anyRequest().authenticated())
@@ -50,6 +50,12 @@ public class SecurityConfig {
         return http.build();
     }
 
+    // Public photos skip the security chain entirely; ImageServlet applies CORS itself
+    @Bean
+    public WebSecurityCustomizer webSecurityCustomizer() {
+        return web -> web.ignoring().requestMatchers("/uploads/**", "/images/**");
+    }
+
     @Bean
     public AuthenticationEntryPoint authenticationEntryPoint() {
         return (request, response, authException) -> {
@@ -0,0 +1,27 @@
+package com.backend.truefit3d.Utills;
+
+import java.io.IOException;
+
+import org.springframework.beans.factory.annotation.Autowired;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.JsonSerializer;
+import com.fasterxml.jackson.databind.SerializerProvider;
+
+// Writes a stored photo key as a signed URL. Created through Spring's Jackson
+// handler instantiator, which injects the signer; a plain ObjectMapper writes
+// the key unchanged.
+//
+// Every serialized ClothSummary carries one, and the URL alone grants access
+// to the photo. Responses must therefore only contain garments the caller may
+// see: their own and those of wardrobes shared with them (ClothOwners).
+public class SignedImageUrlSerializer extends JsonSerializer<String> {
+
+    @Autowired(required = false)
+    private ImageUrlSigner imageUrlSigner;
+
+    @Override
+    public void serialize(String imgUrl, JsonGenerator generator, SerializerProvider provider) throws IOException {
+        generator.writeString(imageUrlSigner == null ? imgUrl : imageUrlSigner.url(imgUrl));
+    }
+}
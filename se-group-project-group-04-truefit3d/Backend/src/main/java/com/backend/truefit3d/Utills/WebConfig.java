@@ -1,19 +1,38 @@
 package com.backend.truefit3d.Utills;
 
-import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.web.servlet.ServletRegistrationBean;
+import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
-import org.springframework.web.servlet.config.annotation.ResourceHandlerRegistry;
-import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+import org.springframework.web.cors.CorsConfigurationSource;
+
+import com.backend.truefit3d.Service.BlobStore;
+import com.backend.truefit3d.Service.ImageCache;
+import com.backend.truefit3d.Service.ImageDerivatives;
 
 @Configuration
-public class WebConfig implements WebMvcConfigurer {
+public class WebConfig {
+
+    @Autowired
+    private BlobStore blobStore;
+
+    @Autowired
+    private ImageDerivatives imageDerivatives;
+
+    @Autowired
+    private ImageCache imageCache;
+
+    @Autowired
+    private ImageUrlSigner imageUrlSigner;
 
-    @Value("${upload.directory}")
-    private String uploadDirectory;
+    @Autowired
+    private CorsConfigurationSource corsConfigurationSource;
 
-    @Override
-    public void addResourceHandlers(ResourceHandlerRegistry registry) {
-        registry.addResourceHandler("/uploads/**")
-                .addResourceLocations("file:" + uploadDirectory + "/");
+    // Photos are served by their own servlet rather than a Spring MVC resource handler
+    @Bean
+    public ServletRegistrationBean<ImageServlet> imageServlet() {
+        return new ServletRegistrationBean<>(new ImageServlet(blobStore, imageDerivatives, imageCache,
+                imageUrlSigner, corsConfigurationSource),
+                "/uploads/*", "/images/*");
     }
-} 
\ No newline at end of file
+}
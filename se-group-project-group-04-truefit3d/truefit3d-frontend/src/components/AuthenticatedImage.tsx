@@ -4,45 +4,35 @@ interface AuthenticatedImageProps {
   src: string;
   alt: string;
   className?: string;
+  size?: 'thumb' | 'card' | 'full';
 }
 
-export function AuthenticatedImage({ src, alt, className }: AuthenticatedImageProps) {
-  const [imageUrl, setImageUrl] = useState<string>('');
+// Uploaded photos are also served downscaled; grids ask for a smaller size.
+// The backend hands out signed URLs, so the signature query is kept as is.
+function sizedUrl(src: string, size?: string) {
+  const match = size ? src.match(/^(.*)\/uploads\/([^/?]+)(\?.*)?$/) : null;
+  return match ? `${match[1]}/images/${match[2]}${match[3] ? `${match[3]}&` : '?'}size=${size}` : src;
+}
 
-  useEffect(() => {
-    const fetchImage = async () => {
-      try {
-        const token = localStorage.getItem('token');
-        const response = await fetch(src, {
-          headers: {
-            'Authorization': `Bearer ${token}`
-          }
-        });
-        
-        if (response.ok) {
-          const blob = await response.blob();
-          const objectUrl = URL.createObjectURL(blob);
-          setImageUrl(objectUrl);
-        } else {
-          console.error('Failed to load image:', src);
-          setImageUrl('/placeholder-image.png');
-        }
-      } catch (error) {
-        console.error('Error loading image:', error);
-        setImageUrl('/placeholder-image.png');
-      }
-    };
+// Image URLs from the backend are signed and expiring, so they load as plain
+// <img> requests the browser can cache, without a bearer token.
+export function AuthenticatedImage({ src, alt, className, size }: AuthenticatedImageProps) {
+  const [failed, setFailed] = useState(false);
 
-    if (src) {
-      fetchImage();
-    }
-  }, [src]);
+  useEffect(() => {
+    setFailed(false);
+  }, [src, size]);
 
   return (
     <img
-      src={imageUrl || '/placeholder-image.png'}
+      src={!src || failed ? '/placeholder-image.png' : sizedUrl(src, size)}
       alt={alt}
       className={className}
+      loading="lazy"
+      onError={() => {
+        console.error('Failed to load image:', src);
+        setFailed(true);
+      }}
     />
   );
-} 
\ No newline at end of file
+}
@@ -552,6 +552,7 @@ export function WardrobePage() {
                         src={item.image}
                         alt={item.name}
                         className="w-full h-48 object-cover"
+                        size="card"
                       />
                       <button
                         onClick={() => handleLike(item.id)}
@@ -742,6 +743,7 @@ export function WardrobePage() {
                   src={item.image}
                   alt={item.name}
                   className="w-full h-48 object-cover"
+                  size="card"
                 />
                 <button
                   onClick={() => handleLike(item.id)}